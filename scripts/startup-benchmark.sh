@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Startup time and time to first request for each way of starting the application.
+#
+#   mvn -Paot -DskipTests package
+#   scripts/startup-benchmark.sh [runs per mode, default 3]
+#
+# Every run starts a fresh JVM against the database the application is configured for (SPRING_DATASOURCE_URL etc. in
+# the environment override application.properties), waits until GET /login answers 200 and stops it again. Reported
+# per run: "Started ... in" as Spring logs it, and the wall-clock time from launching java to that first 200 response,
+# which with lazy initialization includes creating whatever the first request needs. Modes:
+#
+#   fat-jar       java -jar on the packaged jar, default profile (how it ran before)
+#   extracted     the same, from the jar extracted with -Djarmode=tools (no nested jars to open)
+#   prod          extracted, prod profile: lazy initialization, Flyway checks the schema instead of ddl-auto
+#   prod-aot      prod with the bean definitions Spring AOT generated at build time (-Dspring.aot.enabled=true)
+#   prod-aot-cds  prod-aot with a class-data sharing archive recorded by a training run that served one request
+#
+# The extracted jar and the archive go to target/startup. They only fit the JVM (JAVA_HOME, else java on the PATH)
+# and jar they were made with: the training run is repeated every time.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=$(ls target/todolistapplication-*.jar | grep -v original | head -1)
+WORK=target/startup
+APP=$WORK/app/$(basename "$JAR")
+ARCHIVE=$WORK/application.jsa
+LOG=$WORK/run.log
+
+if ! unzip -l "$JAR" | grep '__BeanFactoryRegistrations.class' > /dev/null; then
+    echo "$JAR has no AOT-generated classes: build it with mvn -Paot -DskipTests package" >&2
+    exit 1
+fi
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+
+millis() {
+    date +%s%3N
+}
+
+# Starts the application with the given JVM options and arguments, records the timings, and stops it.
+# Prints "<started-in ms> <first-request ms>".
+start_and_time() {
+    local launched pid ready
+    launched=$(millis)
+    "$JAVA" "$@" --server.port="$PORT" > "$LOG" 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/login")" = 200 ]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "The application exited before serving a request, see $LOG" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(millis)
+    kill "$pid"
+    wait "$pid" || true
+    local started
+    started=$(sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' "$LOG" | awk '{ printf "%d", $1 * 1000 }')
+    echo "${started:-?} $((ready - launched))"
+}
+
+run_mode() {
+    local mode=$1
+    shift
+    for run in $(seq "$RUNS"); do
+        read -r started first < <(start_and_time "$@")
+        printf '%-14s %3d %14s %18s\n' "$mode" "$run" "$started" "$first"
+    done
+}
+
+echo "Training run for the class-data sharing archive..." >&2
+start_and_time -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -jar "$APP" --spring.profiles.active=prod > /dev/null
+[ -f "$ARCHIVE" ] || { echo "No archive written, see $LOG" >&2; exit 1; }
+
+printf '%-14s %3s %14s %18s\n' mode run "started (ms)" "first request (ms)"
+run_mode fat-jar -jar "$JAR"
+run_mode extracted -jar "$APP"
+run_mode prod -jar "$APP" --spring.profiles.active=prod
+run_mode prod-aot -Dspring.aot.enabled=true -jar "$APP" --spring.profiles.active=prod
+run_mode prod-aot-cds -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true -jar "$APP" --spring.profiles.active=prod
@@ -0,0 +1,167 @@
+package com.alma.todolistapplication.availability;
+
+import com.alma.todolistapplication.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this username / email free?" mostly from memory: a {@link BloomFilter} of every taken
+ * username and email, filled by streaming {@code users} once the application is ready and added to on
+ * each registration. A name the filter has never seen is free without a query; only a name that
+ * might be taken (one that is, or a false positive at {@code app.availability.false-positive-rate})
+ * is looked up in the database.
+ * <p>
+ * The filter is advisory. Names match regardless of case and surrounding spaces, as the unique
+ * constraints do, but registrations through another instance or in the moment a rebuild starts only
+ * reach this filter with its next rebuild ({@code app.availability.rebuild-interval}), which is
+ * also when it is resized for growth; until then such a name reads as free, and registering it
+ * still fails on the constraint. Until the first fill, and with {@code app.availability.enabled=false},
+ * every check goes to the database.
+ */
+@Component
+public class UserAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityIndex.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+    private final Counter answeredFromFilter;
+    private final Counter answeredFromDatabase;
+
+    private volatile BloomFilter filter; // Null until the first fill
+    private volatile BloomFilter building; // The next filter while a rebuild streams, so it misses no registration
+
+    @Autowired
+    public UserAvailabilityIndex(UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.availability.enabled:true}") boolean enabled,
+                                 @Value("${app.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.availability.min-capacity:100000}") long minCapacity) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        this.answeredFromFilter = lookupCounter(meterRegistry, "filter");
+        this.answeredFromDatabase = lookupCounter(meterRegistry, "database");
+        Gauge.builder("app.availability.filter.bits", this, UserAvailabilityIndex::getFilterBits)
+                .description("Size of the username/email Bloom filter in bits").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Username/email availability index disabled, checks go to the database");
+            return;
+        }
+        rebuild();
+    }
+
+    // Also drops names of deleted users, which a Bloom filter can't forget any other way
+    @Scheduled(initialDelayString = "${app.availability.rebuild-interval:6h}",
+            fixedDelayString = "${app.availability.rebuild-interval:6h}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            long users = userRepository.count();
+            // Two keys per user, with room to double before the false-positive rate climbs
+            BloomFilter next = new BloomFilter(Math.max(minCapacity, 4 * users), falsePositiveRate);
+            building = next;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamUsernames()) {
+                    usernames.forEach(username -> next.put(usernameKey(username)));
+                }
+                try (Stream<String> emails = userRepository.streamEmails()) {
+                    emails.forEach(email -> next.put(emailKey(email)));
+                }
+            });
+            filter = next;
+            logger.info("Availability index built for {} users in {} ms ({} KiB)",
+                    users, System.currentTimeMillis() - started, next.getBitCount() / 8 / 1024);
+        } catch (DataAccessException e) {
+            logger.warn("Could not build the availability index, keeping the previous one: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (mightBeTaken(usernameKey(username))) {
+            answeredFromDatabase.increment();
+            return !userRepository.existsByUsername(username.trim());
+        }
+        answeredFromFilter.increment();
+        return true;
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (mightBeTaken(emailKey(email))) {
+            answeredFromDatabase.increment();
+            return !userRepository.existsByEmail(email.trim());
+        }
+        answeredFromFilter.increment();
+        return true;
+    }
+
+    /**
+     * Records a username and email as taken, from the moment they are inserted: if the insert
+     * rolls back they only cost a database check, as a false positive does.
+     */
+    public void taken(String username, String email) {
+        for (BloomFilter target : new BloomFilter[]{filter, building}) {
+            if (target != null) {
+                target.put(usernameKey(username));
+                target.put(emailKey(email));
+            }
+        }
+    }
+
+    private long getFilterBits() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.getBitCount();
+    }
+
+    private boolean mightBeTaken(String key) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(key);
+    }
+
+    // Usernames and emails share the filter; the prefix keeps "bob" the username apart from an email "bob"
+    private static String usernameKey(String username) {
+        return "u:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String answeredFrom) {
+        return Counter.builder("app.availability.lookups")
+                .description("Username and email availability checks, by where they were answered")
+                .tag("answered", answeredFrom)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,137 @@
+package com.alma.todolistapplication.cache;
+
+import com.alma.todolistapplication.dto.TodoItemPage;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of users' to-do lists, keyed by user id.
+ * <p>
+ * Holds the full list and first pages (one entry per page size) as unmodifiable lists of
+ * {@link TodoItemDto} records, never entities: a cached item can't be changed by the caller it is
+ * handed to, and doesn't reach back into a closed session for its user. Entries are weighed by item
+ * count, so {@code max-items} bounds memory no matter how the lists are spread across users, and
+ * idle entries expire.
+ * <p>
+ * Mutations call {@link #invalidate(Long)}. It drops the user's entries immediately and again
+ * after commit. A per-user stamp keeps a read that started before the commit from writing its
+ * stale result back.
+ * Hit/miss/eviction metrics are published as {@code cache.*} meters tagged {@code cache=todoLists}.
+ */
+@Component
+public class TodoListCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoListCache.class);
+
+    public static final String CACHE_NAME = "todoLists";
+
+    private static final int FULL_LIST = 0; // View key for getTodoItemsForUser; page views use their page size
+    private static final int STAMP_STRIPES = 1024; // Power of two
+
+    private record ViewKey(Long userId, int view) {
+    }
+
+    private final boolean enabled;
+    private final Cache<ViewKey, Object> cache;
+    private final Set<Integer> pageSizesSeen = ConcurrentHashMap.newKeySet(); // Tells invalidate() which keys a user can have
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(STAMP_STRIPES);
+
+    @Autowired
+    public TodoListCache(@Value("${app.cache.todo-lists.enabled:true}") boolean enabled,
+                         @Value("${app.cache.todo-lists.max-items:200000}") long maxItems,
+                         @Value("${app.cache.todo-lists.idle-timeout:10m}") Duration idleTimeout,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxItems)
+                .weigher(TodoListCache::weigh)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("To-do list cache {} (max {} items, idle timeout {})",
+                enabled ? "enabled" : "disabled", maxItems, idleTimeout);
+    }
+
+    public List<TodoItemDto> getList(Long userId, Supplier<List<TodoItemDto>> loader) {
+        return get(new ViewKey(userId, FULL_LIST), () -> List.copyOf(loader.get()));
+    }
+
+    // Only first pages are cached: deeper pages are cheap keyset seeks and rarely re-read
+    public TodoItemPage getFirstPage(Long userId, int pageSize, Supplier<TodoItemPage> loader) {
+        if (enabled) {
+            pageSizesSeen.add(pageSize);
+        }
+        return get(new ViewKey(userId, pageSize), loader);
+    }
+
+    public void invalidate(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        evict(userId);
+        // Readers in transactions that started before ours commits can still load the old rows; evict again once it is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(ViewKey key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        int stripe = stripe(key.userId());
+        long stamp = invalidationStamps.get(stripe);
+        T loaded = loader.get();
+        cache.put(key, loaded);
+        // An invalidation raced with the load: the value may predate the mutation, so don't keep it
+        if (invalidationStamps.get(stripe) != stamp) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    private void evict(Long userId) {
+        invalidationStamps.incrementAndGet(stripe(userId));
+        cache.invalidate(new ViewKey(userId, FULL_LIST));
+        for (Integer pageSize : pageSizesSeen) {
+            cache.invalidate(new ViewKey(userId, pageSize));
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMP_STRIPES - 1);
+    }
+
+    private static int weigh(ViewKey key, Object value) {
+        int items = value instanceof TodoItemPage page ? page.items().size() : ((List<?>) value).size();
+        return Math.max(1, items); // Empty lists still cost an entry
+    }
+}
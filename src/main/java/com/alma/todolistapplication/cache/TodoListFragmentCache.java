@@ -0,0 +1,175 @@
+package com.alma.todolistapplication.cache;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.dto.TodoItemPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Rendered HTML of the first page of a user's list (the {@code index :: todo-items} fragment),
+ * keyed by user id, list version and locale.
+ * <p>
+ * Every mutation bumps the list version, so an entry is never stale; superseded versions are
+ * simply never asked for again and age out. The fragment also depends on the clock: an item's
+ * due date turns red once it has passed. Each entry therefore expires at the earliest due date
+ * still ahead among its open items, and is rendered afresh after that.
+ * <p>
+ * The forms in the fragment carry the request's CSRF token, so it is cached with a placeholder in
+ * its place and the current request's token is put back on every hit.
+ */
+@Component
+public class TodoListFragmentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoListFragmentCache.class);
+
+    public static final String CACHE_NAME = "todoListFragments";
+    static final String FRAGMENT_VIEW = "index :: todo-items";
+    private static final String CSRF_PLACEHOLDER = "\u0000csrf\u0000";
+    private static final Duration MAX_BOUNDARY = Duration.ofDays(30); // Well past any idle timeout
+
+    /** The first page as the index view needs it: rows, the cursor of the next page, and whether there are any rows. */
+    public record RenderedPage(String html, String nextCursor, boolean hasItems) {
+    }
+
+    private record Key(Long userId, long listVersion, Locale locale) {
+    }
+
+    // validUntil is in System.nanoTime() terms, like Caffeine's ticker; Long.MAX_VALUE if no due date is ahead
+    private record Entry(RenderedPage page, long validUntil) {
+    }
+
+    private final boolean enabled;
+    private final ThymeleafViewResolver viewResolver;
+    private final Cache<Key, Entry> cache;
+
+    @Autowired
+    public TodoListFragmentCache(@Value("${app.cache.todo-fragments.enabled:false}") boolean enabled,
+                                 @Value("${app.cache.todo-fragments.max-size:10000}") long maxSize,
+                                 @Value("${app.cache.todo-fragments.idle-timeout:10m}") Duration idleTimeout,
+                                 ThymeleafViewResolver viewResolver,
+                                 MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.viewResolver = viewResolver;
+        long idleNanos = idleTimeout.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return Math.min(idleNanos, entry.validUntil() - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("To-do list fragment cache {} (max {} entries, idle timeout {})",
+                enabled ? "enabled" : "disabled", maxSize, idleTimeout);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RenderedPage getFirstPage(Long userId, long listVersion, HttpServletRequest request, HttpServletResponse response,
+                                     Supplier<TodoItemPage> pageLoader) throws Exception {
+        Key key = new Key(userId, listVersion, RequestContextUtils.getLocale(request));
+        String csrfToken = csrfToken(request);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            entry = render(pageLoader.get(), request, response, csrfToken);
+            cache.put(key, entry);
+        }
+        RenderedPage page = entry.page();
+        String html = csrfToken == null ? page.html() : page.html().replace(CSRF_PLACEHOLDER, csrfToken);
+        return new RenderedPage(html, page.nextCursor(), page.hasItems());
+    }
+
+    private Entry render(TodoItemPage page, HttpServletRequest request, HttpServletResponse response, String csrfToken) throws Exception {
+        LocalDateTime now = LocalDateTime.now(); // Before rendering: an item falling due meanwhile expires the entry at once
+        View view = viewResolver.resolveViewName(FRAGMENT_VIEW, RequestContextUtils.getLocale(request));
+        StringWriter html = new StringWriter();
+        view.render(Map.of("todos", page.items()), request, new CapturingResponse(response, html));
+        String rendered = csrfToken == null ? html.toString() : html.toString().replace(csrfToken, CSRF_PLACEHOLDER);
+
+        long validUntil = Long.MAX_VALUE;
+        for (TodoItemDto item : page.items()) {
+            if (!item.completed() && item.dueDate() != null && !item.dueDate().isBefore(now)
+                    && item.dueDate().isBefore(now.plus(MAX_BOUNDARY))) {
+                validUntil = Math.min(validUntil, System.nanoTime() + Duration.between(now, item.dueDate()).toNanos());
+            }
+        }
+        return new Entry(new RenderedPage(rendered, page.hasNext() ? page.nextCursor().encode() : null, !page.items().isEmpty()),
+                validUntil);
+    }
+
+    // The (masked) token is fixed for the whole request, which is what the rendered forms contain
+    private static String csrfToken(HttpServletRequest request) {
+        return request.getAttribute(CsrfToken.class.getName()) instanceof CsrfToken token ? token.getToken() : null;
+    }
+
+    // Collects the fragment instead of writing it out, and keeps the view from touching the real response's headers
+    private static final class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final PrintWriter writer;
+
+        CapturingResponse(HttpServletResponse response, StringWriter target) {
+            super(response);
+            this.writer = new PrintWriter(target);
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            return writer;
+        }
+
+        @Override
+        public void setContentType(String type) {
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+        }
+
+        @Override
+        public void flushBuffer() {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.alma.todolistapplication.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the connection pool.
+ * <p>
+ * At most {@code maxActive} threads hold a connection at once, and at most {@code maxWaiting} more
+ * queue for one; anyone beyond that, or still queued after {@code acquireTimeout}, fails with
+ * {@link SQLTransientConnectionException} (a 503, see {@code DatabaseBusyAdvice}) rather than
+ * parking until the pool gives up. Tomcat's worker pool used to bound the queue; with virtual
+ * threads every request has a thread of its own and nothing else would.
+ * <p>
+ * A thread that already holds a connection from this pool is not admitted again: its next one is
+ * taken straight from the pool. Hibernate does that mid-transaction on MySQL, which has no sequences, to fetch
+ * the next block of to-do ids from the {@code todo_items_seq} table, and it holds the id optimizer's
+ * lock while it waits. If every pooled connection belonged to a transaction queued on that lock,
+ * the fetch could never get one. Keeping {@code maxActive} below the pool size leaves it one.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    // Per instance: with a replica, holding a primary connection says nothing about the replica pool
+    private final ThreadLocal<AtomicInteger> connectionsHeld = ThreadLocal.withInitial(AtomicInteger::new);
+
+    private final int maxActive;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final Semaphore active;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BoundedDataSource(DataSource target, int maxActive, int maxWaiting, Duration acquireTimeout) {
+        super(target);
+        if (maxActive < 1 || maxWaiting < 0) {
+            throw new IllegalArgumentException("maxActive must be positive and maxWaiting non-negative: " + maxActive + ", " + maxWaiting);
+        }
+        this.maxActive = maxActive;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.active = new Semaphore(maxActive, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger held = connectionsHeld.get();
+        if (held.get() > 0) {
+            return tracking(obtainTargetDataSource().getConnection(), held, false);
+        }
+        admit();
+        try {
+            return tracking(obtainTargetDataSource().getConnection(), held, true);
+        } catch (SQLException | RuntimeException e) {
+            active.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        AtomicInteger held = connectionsHeld.get();
+        if (held.get() > 0) {
+            return tracking(obtainTargetDataSource().getConnection(username, password), held, false);
+        }
+        admit();
+        try {
+            return tracking(obtainTargetDataSource().getConnection(username, password), held, true);
+        } catch (SQLException | RuntimeException e) {
+            active.release();
+            throw e;
+        }
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public int getActive() {
+        return maxActive - active.availablePermits();
+    }
+
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private void admit() throws SQLException {
+        if (active.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw busy();
+        }
+        try {
+            if (!active.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw busy();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private SQLTransientConnectionException busy() {
+        rejected.incrementAndGet();
+        return new SQLTransientConnectionException("Too many concurrent database requests ("
+                + maxActive + " active, " + maxWaiting + " waiting), try again shortly");
+    }
+
+    // Counts the connection against the thread that took it until close() hands it back to the pool, once however often close is called
+    private Connection tracking(Connection target, AtomicInteger held, boolean admitted) {
+        held.incrementAndGet();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(), new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getTargetConnection" -> target;
+                    default -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            held.decrementAndGet();
+                            if (admitted) {
+                                active.release();
+                            }
+                        }
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
@@ -0,0 +1,115 @@
+package com.alma.todolistapplication.config;
+
+import com.alma.todolistapplication.diagnostics.ExplainingDataSource;
+import com.alma.todolistapplication.security.AuthTokenService;
+import com.alma.todolistapplication.security.RecentWriteCookie;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    // HikariConfig reports -1 until the pool starts and only then settles on its default of 10
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    // Puts a BoundedDataSource in front of the Hikari pool; by default one pooled connection is kept back for id-block fetches.
+    // Between the two, ExplainingDataSource lets the IndexAdvisor explain statements instead of running them.
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource pool)) {
+                    return bean;
+                }
+                int poolSize = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                int maxActive = environment.getProperty("app.datasource.max-active", Integer.class, Math.max(1, poolSize - 1));
+                int maxWaiting = environment.getProperty("app.datasource.max-waiting", Integer.class, 200);
+                Duration acquireTimeout = environment.getProperty("app.datasource.acquire-timeout", Duration.class, Duration.ofSeconds(10));
+                logger.info("Data source '{}' (pool of {}) admits {} connection holders, {} waiters for up to {}",
+                        beanName, poolSize, maxActive, maxWaiting, acquireTimeout);
+                return new BoundedDataSource(new ExplainingDataSource(pool), maxActive, maxWaiting, acquireTimeout);
+            }
+        };
+    }
+
+    /**
+     * With {@code app.datasource.replica.enabled}, two pools instead of Boot's one: the primary
+     * ({@code spring.datasource.*}) and a replica ({@code app.datasource.replica.*}), each behind its
+     * own admission bound, and the application's {@code DataSource} routes between them, see
+     * {@link ReadWriteRoutingDataSource}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    static class ReplicaRoutingConfig {
+
+        @Bean
+        public DataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("primary");
+            return pool;
+        }
+
+        // Same credentials and driver as the primary unless given
+        @Bean
+        public DataSource replicaDataSource(DataSourceProperties properties, Environment environment) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(environment.getRequiredProperty("app.datasource.replica.url"));
+            pool.setUsername(environment.getProperty("app.datasource.replica.username", properties.determineUsername()));
+            pool.setPassword(environment.getProperty("app.datasource.replica.password", properties.determinePassword()));
+            pool.setDriverClassName(properties.determineDriverClassName());
+            Binder.get(environment).bind("app.datasource.replica.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName("replica");
+            pool.setReadOnly(true);
+            return pool;
+        }
+
+        @Bean
+        public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                                   @Qualifier("replicaDataSource") DataSource replica,
+                                                   @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag) {
+            return new ReplicaLagMonitor(primary, replica, maxLag);
+        }
+
+        // Stickiness should outlast the lag the replica is allowed, or a user could still miss their own write
+        @Bean
+        public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+                @Qualifier("primaryDataSource") DataSource primary,
+                @Qualifier("replicaDataSource") DataSource replica,
+                ReplicaLagMonitor lagMonitor,
+                AuthTokenService tokenService,
+                @Value("${app.datasource.replica.sticky-for:${app.datasource.replica.max-lag:5s}}") Duration stickyFor,
+                @Value("${app.datasource.replica.max-sticky-users:100000}") long maxStickyUsers) {
+            logger.info("Routing read-only transactions to the replica, tolerating {} of lag, users stick to the primary for {} after a write",
+                    lagMonitor.getMaxLag(), stickyFor);
+            return new ReadWriteRoutingDataSource(primary, replica, lagMonitor, new RecentWriteCookie(tokenService, stickyFor),
+                    stickyFor, maxStickyUsers);
+        }
+
+        // The lazy proxy is what makes routing by read-only flag work, see ReadWriteRoutingDataSource
+        @Bean
+        @Primary
+        public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+    }
+}
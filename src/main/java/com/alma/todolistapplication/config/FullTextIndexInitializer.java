@@ -0,0 +1,116 @@
+package com.alma.todolistapplication.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Makes sure {@code todo_items} has the FULLTEXT index that search uses. JPA can't declare one;
+ * the V1 migration creates it, but a schema that didn't come from the migrations (ddl-auto, or
+ * Flyway turned off) may not have it. Also tells the search service whether the index can be used.
+ * <p>
+ * On databases other than MySQL/MariaDB, or with {@code app.search.full-text.enabled=false},
+ * search falls back to {@code LIKE '%...%'}. The index is maintained by InnoDB itself, so
+ * creates, edits and deletes (single or bulk) are searchable as soon as they commit.
+ */
+@Component
+@DependsOn("entityManagerFactory") // The migrations (or ddl-auto in tests) have to create todo_items first
+public class FullTextIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndexInitializer.class);
+
+    static final String INDEX_NAME = "ft_todo_items_description";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean createIndex;
+
+    private volatile boolean available;
+    private volatile int minTokenSize = 3; // InnoDB default
+    private volatile Set<String> stopwords = Set.of();
+
+    @Autowired
+    public FullTextIndexInitializer(JdbcTemplate jdbcTemplate,
+                                    @Value("${app.search.full-text.enabled:true}") boolean enabled,
+                                    @Value("${app.search.full-text.create-index:true}") boolean createIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.createIndex = createIndex;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            logger.info("Full-text search disabled, searching with LIKE");
+            return;
+        }
+        try {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"MySQL".equalsIgnoreCase(database) && !"MariaDB".equalsIgnoreCase(database)) {
+                logger.info("Full-text search needs MySQL, {} will search with LIKE", database);
+                return;
+            }
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'todo_items' AND index_name = ?",
+                    Integer.class, INDEX_NAME);
+            if (existing == null || existing == 0) {
+                if (!createIndex) {
+                    logger.warn("FULLTEXT index {} is missing and create-index is off, searching with LIKE", INDEX_NAME);
+                    return;
+                }
+                // The first FULLTEXT index rebuilds the table, so this one-off can take a while on a large database
+                logger.info("Creating FULLTEXT index {} on todo_items(description)", INDEX_NAME);
+                jdbcTemplate.execute("ALTER TABLE todo_items ADD FULLTEXT INDEX " + INDEX_NAME + " (description)");
+            }
+            Integer serverMinTokenSize = jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class);
+            if (serverMinTokenSize != null) {
+                minTokenSize = serverMinTokenSize;
+            }
+            stopwords = loadStopwords();
+            available = true;
+            logger.info("Full-text search enabled (minimum word length {}, {} stopwords)", minTokenSize, stopwords.size());
+        } catch (DataAccessException e) {
+            logger.warn("Full-text search unavailable, searching with LIKE: {}", e.getMessage());
+        }
+    }
+
+    // Stopwords aren't indexed, so a required stopword in a query would match nothing
+    private Set<String> loadStopwords() {
+        Boolean stopwordsEnabled = jdbcTemplate.queryForObject("SELECT @@innodb_ft_enable_stopword = 1", Boolean.class);
+        if (!Boolean.TRUE.equals(stopwordsEnabled)) {
+            return Set.of();
+        }
+        String customTable = jdbcTemplate.queryForObject("SELECT @@innodb_ft_server_stopword_table", String.class);
+        String table = customTable == null || customTable.isBlank()
+                ? "information_schema.INNODB_FT_DEFAULT_STOPWORD"
+                : customTable.replace('/', '.'); // Configured as "db_name/table_name"
+        List<String> words = jdbcTemplate.queryForList("SELECT value FROM " + table, String.class);
+        return words.stream().map(word -> word.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public int getMinTokenSize() {
+        return minTokenSize;
+    }
+
+    public Set<String> getStopwords() {
+        return stopwords;
+    }
+}
@@ -0,0 +1,49 @@
+package com.alma.todolistapplication.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} (the prod profile) a bean is only created when
+ * something first needs it, which takes controllers, templates and their services off the startup
+ * path. That is wrong for beans that act on their own rather than wait to be called, so these are
+ * still created with the context:
+ * <ul>
+ *   <li>anything with a {@code @Scheduled} method: the jobs, the reminder wheel, SSE heartbeats and the
+ *       replica lag monitor would otherwise never be scheduled,</li>
+ *   <li>anything with a {@code @PostConstruct} method, e.g. {@link FullTextIndexInitializer}, whose
+ *       {@code ALTER TABLE} must not run inside the first search request.</li>
+ * </ul>
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter selfStartingBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && hasMethodAnnotatedWith(beanType, Scheduled.class, PostConstruct.class);
+    }
+
+    @SafeVarargs
+    private static boolean hasMethodAnnotatedWith(Class<?> type, Class<? extends Annotation>... annotations) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> found.set(true), (Method method) -> {
+            for (Class<? extends Annotation> annotation : annotations) {
+                if (AnnotatedElementUtils.hasAnnotation(method, annotation)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+        return found.get();
+    }
+}
@@ -0,0 +1,79 @@
+package com.alma.todolistapplication.config;
+
+import com.alma.todolistapplication.metrics.RequestMetricsInterceptor;
+import com.alma.todolistapplication.metrics.StatementCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Hot-path metrics, all under {@code /actuator/metrics}. Spring Boot already records controller
+ * handlers ({@code http.server.requests}, by URI pattern), repository query methods
+ * ({@code spring.data.repository.invocations}, by repository and method) and pool waits
+ * ({@code hikaricp.connections.acquire}); this adds service methods annotated {@code @Timed},
+ * statements per request, view render time, the connection admission gauges and replica lag.
+ * Percentiles and histograms for each are configured in application.properties.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MetricsConfig(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(statementCounter, meterRegistry.getObject()));
+    }
+
+    // One set per pool (primary and replica when reads are routed), tagged with the data source's bean name
+    @Bean
+    public MeterBinder connectionAdmissionMetrics(ListableBeanFactory beanFactory) {
+        return registry -> beanFactory.getBeansOfType(BoundedDataSource.class).forEach((name, bounded) -> {
+            Gauge.builder("db.admission.active", bounded, BoundedDataSource::getActive)
+                    .description("Threads holding an admitted connection")
+                    .tag("pool", name)
+                    .register(registry);
+            Gauge.builder("db.admission.waiting", bounded, BoundedDataSource::getWaiting)
+                    .description("Threads queued for admission")
+                    .tag("pool", name)
+                    .register(registry);
+            FunctionCounter.builder("db.admission.rejected", bounded, BoundedDataSource::getRejected)
+                    .description("Connection requests turned away (503)")
+                    .tag("pool", name)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder replicaLagMetrics(ObjectProvider<ReplicaLagMonitor> lagMonitor) {
+        return registry -> lagMonitor.ifAvailable(monitor ->
+                Gauge.builder("db.replica.staleness", monitor, m -> m.getStaleness().toMillis() / 1000.0)
+                        .description("Upper bound on how far the replica is behind the primary")
+                        .baseUnit("seconds")
+                        .register(registry));
+    }
+}
@@ -0,0 +1,146 @@
+package com.alma.todolistapplication.config;
+
+import com.alma.todolistapplication.event.TodoListEvent;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.security.RecentWriteCookie;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions ({@code @Transactional(readOnly = true)}) to the replica pool and
+ * everything else to the primary. Only useful behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before the read-only flag is bound to the thread, the proxy
+ * defers fetching it to the first statement, when the flag is known.
+ * <p>
+ * A read-only transaction still goes to the primary when
+ * <ul>
+ *   <li>the replica is further behind than the configured tolerance ({@link ReplicaLagMonitor}),</li>
+ *   <li>the signed-in user changed something in the last {@code stickyFor} (read-your-writes):
+ *       a read-write transaction they commit, or a list change made on their behalf such as a
+ *       bulk job chunk, keeps their reads on the primary until the replica has caught up. This
+ *       node remembers it, and the response tells the client in a {@link RecentWriteCookie}, so
+ *       the user's next requests stay on the primary on whichever node they land (stateless
+ *       sessions need no sticky load balancer),</li>
+ *   <li>the caller asked for it with {@link #usingPrimary}.</li>
+ * </ul>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    // Users with a recent write on this node, by id; the value is unused
+    private final Cache<Long, Boolean> recentWriters;
+    // The same for writes made on other nodes, carried by the client
+    private final RecentWriteCookie recentWriteCookie;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      RecentWriteCookie recentWriteCookie, Duration stickyFor, long maxStickyUsers) {
+        this.lagMonitor = lagMonitor;
+        this.recentWriteCookie = recentWriteCookie;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxStickyUsers)
+                .expireAfterWrite(stickyFor)
+                .build();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code action} with any read-only transaction it starts on the primary, for the odd read
+     * that must not be stale (a login right after registering).
+     */
+    public static <T> T usingPrimary(Supplier<T> action) {
+        Boolean previous = primaryOnly.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                primaryOnly.remove();
+            }
+        }
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+            recentWriteCookie.issue(userId); // If this is a request's thread
+        }
+    }
+
+    // Also covers changes made on the user's behalf off the request thread (bulk jobs)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListChanged(TodoListEvent event) {
+        recordWrite(event.userId());
+    }
+
+    @Override
+    protected Route determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return Route.PRIMARY;
+        }
+        if (primaryOnly.get() != null || !lagMonitor.isReplicaUsable()) {
+            return Route.PRIMARY;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return Route.REPLICA;
+        }
+        return recentWriters.getIfPresent(userId) != null || recentWriteCookie.isPresent(userId) ? Route.PRIMARY : Route.REPLICA;
+    }
+
+    // Once per transaction; Hibernate's id-block fetches take a second connection inside it
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        Long userId = currentUserId();
+        if (userId == null || TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(RecordWriteOnCommit.class::isInstance)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new RecordWriteOnCommit(userId));
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user.getId() : null;
+    }
+
+    private final class RecordWriteOnCommit implements TransactionSynchronization {
+
+        private final Long userId;
+
+        private RecordWriteOnCommit(Long userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public void afterCommit() {
+            recordWrite(userId);
+        }
+    }
+}
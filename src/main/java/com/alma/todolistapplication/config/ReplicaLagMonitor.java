@@ -0,0 +1,96 @@
+package com.alma.todolistapplication.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells how far the replica is behind, from a heartbeat row: every {@code heartbeat-interval} the
+ * primary stamps {@code replica_heartbeat} (created by migration V5) with its own clock, and the
+ * value replicated so far is read back from the replica. A replica showing a beat from time T has
+ * every commit the primary made before T, so it is at most {@code now - T} stale, where now is the
+ * primary's time too: the beat just written, read back, plus the time elapsed since. No node's own
+ * clock enters into it, so skew between the nodes and the database doesn't show up as lag. Beyond
+ * {@code max-lag}, or when the replica can't be read at all (the last beat seen just keeps ageing),
+ * read-only transactions go to the primary until it catches up.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+
+    private volatile long lastReplicatedBeat; // 0 until the first beat arrives: the replica counts as stale
+    private volatile PrimaryClock primaryClock; // Null until the first beat is written
+    private volatile boolean usable;
+
+    // The primary's time in epoch millis as of System.nanoTime() readAt
+    private record PrimaryClock(long millis, long readAt) {
+
+        long now() {
+            return millis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readAt);
+        }
+    }
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return getStaleness().compareTo(maxLag) <= 0;
+    }
+
+    // Upper bound on what the replica is missing, as of now
+    public Duration getStaleness() {
+        long beat = lastReplicatedBeat;
+        PrimaryClock clock = primaryClock;
+        return beat == 0 || clock == null ? ChronoUnit.FOREVER.getDuration() : Duration.ofMillis(Math.max(0, clock.now() - beat));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-interval:1s}")
+    public void heartbeat() {
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (!beats.isEmpty()) {
+                lastReplicatedBeat = beats.get(0);
+            }
+        } catch (DataAccessException e) {
+            logger.debug("Reading the replica heartbeat failed: {}", e.getMessage());
+        }
+        try {
+            // 1000.0 rather than 1000: H2 (the tests) has UNIX_TIMESTAMP return whole seconds as an INT, which * 1000 overflows
+            primary.update("UPDATE replica_heartbeat SET beat_millis = UNIX_TIMESTAMP(NOW(3)) * 1000.0 WHERE id = 1");
+            long readAt = System.nanoTime();
+            List<Long> written = primary.queryForList("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (written.isEmpty()) {
+                logger.warn("replica_heartbeat has no row to stamp (migration V5 adds it)");
+            } else {
+                primaryClock = new PrimaryClock(written.get(0), readAt);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Writing the replica heartbeat failed: {}", e.getMessage());
+        }
+        boolean nowUsable = isReplicaUsable();
+        if (nowUsable != usable) {
+            usable = nowUsable;
+            logger.info(nowUsable ? "Replica within {} of the primary, sending read-only transactions to it"
+                    : "Replica more than {} behind the primary, reading from the primary", maxLag);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.alma.todolistapplication.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling // Background jobs live in the "job" package
+public class SchedulingConfig {
+}
@@ -1,46 +1,163 @@
 package com.alma.todolistapplication.config;
 
+import com.alma.todolistapplication.security.AuthTokenRefreshFilter;
+import com.alma.todolistapplication.security.AuthTokenService;
+import com.alma.todolistapplication.security.BearerTokenSecurityContextRepository;
+import com.alma.todolistapplication.security.BoundedPasswordEncoder;
+import com.alma.todolistapplication.security.LoginRateLimitFilter;
+import com.alma.todolistapplication.security.LoginRateLimiter;
+import com.alma.todolistapplication.security.PasswordHashingBusyException;
+import com.alma.todolistapplication.security.TokenCookieSecurityContextRepository;
 import com.alma.todolistapplication.security.UserDetailsServiceImpl; // Your UserDetailsService
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher; // For logout
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity // Enables Spring Security's web security support
 public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthTokenService authTokenService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final SessionMode sessionMode;
+    private final String tokenCookieName;
 
     @Autowired
-    public SecurityConfig(UserDetailsServiceImpl userDetailsService) {
+    public SecurityConfig(UserDetailsServiceImpl userDetailsService,
+                          AuthTokenService authTokenService,
+                          LoginRateLimiter loginRateLimiter,
+                          @Value("${app.security.session-mode:session}") SessionMode sessionMode,
+                          @Value("${app.security.token.cookie-name:" + TokenCookieSecurityContextRepository.DEFAULT_COOKIE_NAME + "}") String tokenCookieName) {
         this.userDetailsService = userDetailsService;
+        this.authTokenService = authTokenService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.sessionMode = sessionMode;
+        this.tokenCookieName = tokenCookieName;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Use BCrypt for strong, salted password hashing
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.password-hashing.threads:2}") int threads,
+                                           @Value("${app.security.password-hashing.queue-capacity:32}") int queueCapacity,
+                                           @Value("${app.security.password-hashing.max-wait:2s}") Duration maxWait,
+                                           MeterRegistry meterRegistry) {
+        // Use BCrypt for strong, salted password hashing, on a bounded pool of its own (see BoundedPasswordEncoder)
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, maxWait, meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         // Configure AuthenticationManagerBuilder to use our UserDetailsService and PasswordEncoder
         AuthenticationManagerBuilder authenticationManagerBuilder =
                 http.getSharedObject(AuthenticationManagerBuilder.class);
         authenticationManagerBuilder
                 .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
+                .passwordEncoder(passwordEncoder);
         return authenticationManagerBuilder.build();
     }
 
+    // Saturated password hashing is a 429 to come back later, not a wrong password. The attempt still
+    // costs the client a token: a flood of them from one address is what keeps the hashing saturated
+    private AuthenticationFailureHandler loginFailureHandler(AuthenticationFailureHandler otherwise) {
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingBusyException busy) {
+                loginRateLimiter.loginTurnedAway(request.getRemoteAddr());
+                busy.sendTo(response);
+            } else {
+                otherwise.onAuthenticationFailure(request, response, exception);
+            }
+        };
+    }
+
+    private AuthenticationEntryPoint busyAwareEntryPoint(AuthenticationEntryPoint otherwise) {
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingBusyException busy) {
+                loginRateLimiter.loginTurnedAway(request.getRemoteAddr());
+                busy.sendTo(response);
+            } else {
+                otherwise.commence(request, response, exception);
+            }
+        };
+    }
+
+    // Actuator: served on its own port bound to the loopback address (management.server.*), and answered only to
+    // local callers whatever port it ends up on. Metrics describe every user's traffic and the index advisor runs
+    // EXPLAIN across the schema, so being signed in isn't enough.
+    @Bean
+    @Order(0)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(authz -> authz.anyRequest().access(fromLoopback()))
+                // Set here rather than sent as an error: the error page is behind the login form
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.FORBIDDEN)))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                .csrf(csrf -> csrf.disable());
+        return http.build();
+    }
+
+    private static AuthorizationManager<RequestAuthorizationContext> fromLoopback() {
+        IpAddressMatcher ipv4 = new IpAddressMatcher("127.0.0.0/8");
+        IpAddressMatcher ipv6 = new IpAddressMatcher("::1");
+        return (authentication, context) ->
+                new AuthorizationDecision(ipv4.matches(context.getRequest()) || ipv6.matches(context.getRequest()));
+    }
+
+    // REST API (/api/**): credentials travel in the Authorization header on every call (Bearer token from
+    // /api/token, or Basic). Browsers never attach that header by themselves - and without a WWW-Authenticate
+    // challenge they never cache Basic credentials either - so CSRF protection isn't needed here.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        AuthenticationEntryPoint unauthorized = busyAwareEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED));
+        http
+                .securityMatcher("/api/**")
+                .authorizeHttpRequests(authz -> authz
+                        // The registration form's live username/email check, used before there is an account
+                        .requestMatchers("/api/availability").permitAll()
+                        .anyRequest().authenticated())
+                .httpBasic(basic -> basic.authenticationEntryPoint(unauthorized))
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(unauthorized))
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(
+                        new BearerTokenSecurityContextRepository(authTokenService)))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                .csrf(csrf -> csrf.disable())
+                // Password guessing over Basic is throttled before the password is hashed
+                .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter), BasicAuthenticationFilter.class);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -62,7 +179,8 @@ public class SecurityConfig {
                         .loginPage("/login")             // The URL of our custom login page
                         .loginProcessingUrl("/perform_login") // The URL Spring Security will intercept for login submissions
                         .defaultSuccessUrl("/", true)   // Redirect to home page after successful login
-                        .failureUrl("/login?error=true")   // Redirect to login page with error if login fails
+                        .failureHandler(loginFailureHandler(   // Redirect to login page with error if login fails
+                                new SimpleUrlAuthenticationFailureHandler("/login?error=true")))
                         .permitAll()                     // Allow access to the login page and processing URL
                 )
                 // Configure logout
@@ -70,9 +188,26 @@ public class SecurityConfig {
                         .logoutRequestMatcher(new AntPathRequestMatcher("/perform_logout")) // The URL to trigger logout
                         .logoutSuccessUrl("/login?logout=true") // Redirect to login page with logout message
                         .invalidateHttpSession(true)        // Invalidate the HTTP session
-                        .deleteCookies("JSESSIONID")      // Delete the session cookie
+                        .deleteCookies("JSESSIONID", tokenCookieName) // Delete the session / login token cookie
                         .permitAll()                      // Allow access to the logout URL
-                );
+                )
+                // Login and registration attempts are throttled per client and username before any password is hashed,
+                // and ahead of the CSRF check so that turning one away costs as little as possible
+                .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter), CsrfFilter.class);
+
+        if (sessionMode == SessionMode.STATELESS) {
+            // Keep the login in a signed cookie instead of the HttpSession, so any node can serve any request
+            // (no sticky sessions) and a rolling restart doesn't log anyone out
+            TokenCookieSecurityContextRepository tokenRepository =
+                    new TokenCookieSecurityContextRepository(authTokenService, tokenCookieName);
+            http
+                    .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    .securityContext(context -> context.securityContextRepository(tokenRepository))
+                    // The default request cache and CSRF token repository both live in the session
+                    .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                    .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
+                    .addFilterAfter(new AuthTokenRefreshFilter(tokenRepository), AuthorizationFilter.class);
+        }
 
         // For H2 console frame display (only if using H2 and its console)
         // http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.sameOrigin()));
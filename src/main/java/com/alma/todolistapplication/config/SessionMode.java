@@ -0,0 +1,7 @@
+package com.alma.todolistapplication.config;
+
+// How a logged-in user is remembered between requests (app.security.session-mode)
+public enum SessionMode {
+    SESSION,   // Server-side HttpSession + JSESSIONID cookie (default)
+    STATELESS  // HMAC-signed AUTH_TOKEN cookie verified on every request, no session at all
+}
@@ -0,0 +1,202 @@
+package com.alma.todolistapplication.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Lets {@link IndexAdvisor} see the plan of the SQL a repository method sends, with the parameters
+ * it binds, without running it. Inside {@link #explaining} every prepared statement on the calling
+ * thread is sent as {@code EXPLAIN <sql>} instead; the statement itself then finds no rows
+ * ({@code executeQuery}) or changes none ({@code executeUpdate}), so Hibernate carries on normally
+ * and nothing is read or written. Other threads, and this one outside {@link #explaining}, get the
+ * connection untouched.
+ */
+public class ExplainingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<List<QueryPlan>> explained = new ThreadLocal<>();
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    public ExplainingDataSource(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Runs {@code action} with its statements explained instead of executed, and returns their plans
+     * in the order they were sent. An EXPLAIN the database rejects is returned as a plan with an error.
+     * Code that expects a row back (a count, say) may fail on the empty result; once a statement has
+     * been explained that failure is ignored, before that it is thrown.
+     */
+    public static List<QueryPlan> explaining(Supplier<?> action) {
+        List<QueryPlan> plans = new ArrayList<>();
+        explained.set(plans);
+        try {
+            action.get();
+        } catch (RuntimeException e) {
+            if (plans.isEmpty()) {
+                throw e;
+            }
+        } finally {
+            explained.remove();
+        }
+        return plans;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return explainingIfAsked(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return explainingIfAsked(super.getConnection(username, password));
+    }
+
+    private static Connection explainingIfAsked(Connection target) {
+        if (explained.get() == null) {
+            return target;
+        }
+        return (Connection) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    List<QueryPlan> plans = explained.get();
+                    if (plans != null && result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                        return explainedStatement(target, statement, sql, plans);
+                    }
+                    return result;
+                });
+    }
+
+    // Parameters are passed through to the real statement (never executed) and remembered for the EXPLAIN
+    private static PreparedStatement explainedStatement(Connection connection, PreparedStatement target, String sql, List<QueryPlan> plans) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (name.equals("executeQuery") && (args == null || args.length == 0)) {
+                        plans.add(explain(connection, sql, parameters));
+                        return noRows(target);
+                    } else if ((name.equals("executeUpdate") || name.equals("executeLargeUpdate")) && (args == null || args.length == 0)) {
+                        plans.add(explain(connection, sql, parameters));
+                        return defaultValue(method.getReturnType());
+                    } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        throw new SQLException("Only single executeQuery/executeUpdate calls can be explained: " + name);
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    // Sent as plain text with the parameters written in, never as a prepared statement: MariaDB 10.2 runs the
+    // DELETE behind an EXPLAIN of a multi-table DELETE that is prepared server-side (useCursorFetch turns that on)
+    private static QueryPlan explain(Connection connection, String sql, Map<Integer, Object> parameters) {
+        try (Statement explain = connection.createStatement();
+             ResultSet rows = explain.executeQuery("EXPLAIN " + withParameters(sql, parameters))) {
+            List<QueryPlan.Step> steps = new ArrayList<>();
+            while (rows.next()) {
+                steps.add(new QueryPlan.Step(rows.getString("table"), rows.getString("type"), rows.getString("key"),
+                        rows.getObject("rows") == null ? null : rows.getLong("rows"), rows.getString("Extra")));
+            }
+            return new QueryPlan(sql, steps, null);
+        } catch (SQLException e) {
+            return new QueryPlan(sql, List.of(), e.getMessage());
+        }
+    }
+
+    // Replaces each ? outside quotes with its parameter as a literal
+    static String withParameters(String sql, Map<Integer, Object> parameters) throws SQLException {
+        StringBuilder result = new StringBuilder(sql.length() + 16 * parameters.size());
+        char quote = 0;
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < sql.length()) {
+                    result.append(c);
+                    c = sql.charAt(++i);
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                index++;
+                if (!parameters.containsKey(index)) {
+                    throw new SQLException("No value for parameter " + index);
+                }
+                result.append(literal(parameters.get(index)));
+                continue;
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static String literal(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Boolean || value instanceof Number) {
+            return value.toString();
+        }
+        if (value instanceof byte[] bytes) {
+            return "X'" + HexFormat.of().formatHex(bytes) + "'";
+        }
+        if (value instanceof Timestamp timestamp) {
+            value = timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            // At most six fractional digits: with more MySQL no longer reads it as a DATETIME and the range on it is lost
+            return "'" + DATETIME.format(dateTime) + "'";
+        }
+        // Strings, and dates and times as their ISO/JDBC text, which MySQL reads back the same
+        return "'" + value.toString().replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+
+    // An empty result with the statement's own metadata, for Hibernate to read (native queries look columns up by name)
+    private static ResultSet noRows(PreparedStatement statement) {
+        return (ResultSet) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next", "wasNull" -> false;
+                    case "getMetaData" -> statement.getMetaData();
+                    case "getStatement" -> statement;
+                    case "getFetchSize" -> 0;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> defaultValue(method.getReturnType()); // close(), setFetchSize(), isClosed() and the like
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() && type != void.class ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.alma.todolistapplication.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explains the SQL of every Spring Data query method against the live schema and flags the ones
+ * that read a whole table or index, sort, or build a temporary table (see {@link QueryPlan#problems}),
+ * so a new finder without an index behind it shows up before it meets a large list.
+ * <p>
+ * Each method is called with sample arguments inside a transaction that is rolled back, and its
+ * statements are explained instead of run ({@link ExplainingDataSource}), so nothing is read or
+ * written. The samples are chosen to look like real traffic: the user who owns the newest item, that
+ * item's id, "now" for timestamps, the first page of 20. Runs at startup with
+ * {@code app.index-advisor.run-on-startup=true}, and on demand at {@code /actuator/indexadvisor}
+ * once that endpoint is exposed. MySQL/MariaDB only: the plan is read from their {@code EXPLAIN}.
+ */
+@Component
+public class IndexAdvisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private static final Set<String> SUPPORTED_DATABASES = Set.of("mysql", "mariadb");
+    private static final Pageable SAMPLE_PAGE = PageRequest.of(0, 20);
+
+    public record Finding(String method, List<QueryPlan> plans, List<String> problems) {
+    }
+
+    public record Report(int checked, int flagged, List<Finding> findings) {
+    }
+
+    private final ApplicationContext applicationContext;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate rolledBackTransaction;
+    private final boolean runOnStartup;
+    private final long minRows;
+
+    @Autowired
+    public IndexAdvisor(ApplicationContext applicationContext, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.index-advisor.run-on-startup:false}") boolean runOnStartup,
+                        @Value("${app.index-advisor.min-rows:1000}") long minRows) {
+        this.applicationContext = applicationContext;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rolledBackTransaction = new TransactionTemplate(transactionManager);
+        this.runOnStartup = runOnStartup;
+        this.minRows = minRows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void adviseOnStartup() {
+        if (!runOnStartup) {
+            return;
+        }
+        Report report = advise();
+        for (Finding finding : report.findings()) {
+            if (!finding.problems().isEmpty()) {
+                logger.warn("{}: {}", finding.method(), String.join(", ", finding.problems()));
+            }
+        }
+        logger.info("Index advisor checked {} query methods, {} flagged", report.checked(), report.flagged());
+    }
+
+    /**
+     * Every repository query method with its plans, flagged ones first. Empty when the database
+     * can't explain statements this way.
+     */
+    public Report advise() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (database == null || !SUPPORTED_DATABASES.contains(database.toLowerCase())) {
+            logger.info("The index advisor needs MySQL or MariaDB, not {}", database);
+            return new Report(0, 0, List.of());
+        }
+        Samples samples = samples();
+        Repositories repositories = new Repositories(applicationContext);
+        List<Finding> findings = new ArrayList<>();
+        for (Class<?> domainType : repositories) {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+            for (Method method : information.getQueryMethods()) {
+                findings.add(check(information.getRepositoryInterface().getSimpleName() + "." + method.getName(),
+                        repository, method, samples));
+            }
+        }
+        findings.sort(Comparator.comparing((Finding finding) -> finding.problems().isEmpty()).thenComparing(Finding::method));
+        int flagged = (int) findings.stream().filter(finding -> !finding.problems().isEmpty()).count();
+        return new Report(findings.size(), flagged, findings);
+    }
+
+    private Finding check(String name, Object repository, Method method, Samples samples) {
+        Object[] arguments = new Object[method.getParameterCount()];
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            arguments[i] = samples.argumentFor(parameters[i]);
+            if (arguments[i] == null) {
+                return new Finding(name, List.of(), List.of("not checked: no sample for parameter " + parameters[i].getName()));
+            }
+        }
+        List<QueryPlan> plans;
+        try {
+            plans = ExplainingDataSource.explaining(() -> rolledBackTransaction.execute(status -> {
+                status.setRollbackOnly();
+                try {
+                    return method.invoke(repository, arguments);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    throw new IllegalStateException(e instanceof InvocationTargetException ? e.getCause() : e);
+                }
+            }));
+        } catch (IllegalStateException | DataAccessException e) {
+            return new Finding(name, List.of(), List.of("not checked: " + e.getMessage()));
+        }
+        List<String> problems = new ArrayList<>();
+        for (QueryPlan plan : plans) {
+            if (plan.error() != null) {
+                problems.add("not explained: " + plan.error());
+            }
+            problems.addAll(plan.problems(minRows));
+        }
+        return new Finding(name, plans, problems);
+    }
+
+    private Samples samples() {
+        List<Long[]> newest = jdbcTemplate.query("SELECT id, user_id FROM todo_items ORDER BY id DESC LIMIT 1",
+                (row, i) -> new Long[]{row.getLong(1), row.getLong(2)});
+        if (!newest.isEmpty()) {
+            return new Samples(newest.get(0)[1], newest.get(0)[0]);
+        }
+        Long userId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 1) FROM users", Long.class);
+        return new Samples(userId, 1L);
+    }
+
+    // Sample argument per parameter, by type and, for ids and time windows, by name
+    private record Samples(Long userId, Long itemId) {
+
+        Object argumentFor(Parameter parameter) {
+            Class<?> type = parameter.getType();
+            String name = parameter.getName();
+            if (type == Long.class || type == long.class) {
+                return name.equals("userId") ? userId : name.startsWith("after") ? 0L : itemId;
+            }
+            if (type == Integer.class || type == int.class) {
+                return 1;
+            }
+            if (type == Boolean.class || type == boolean.class) {
+                return false;
+            }
+            if (type == String.class) {
+                return "report";
+            }
+            if (type == LocalDateTime.class) {
+                // The end of a window a week after its start
+                return name.equals("to") || name.startsWith("end") ? LocalDateTime.now().plusDays(7) : LocalDateTime.now();
+            }
+            if (Pageable.class.isAssignableFrom(type)) {
+                return SAMPLE_PAGE;
+            }
+            if (type.isEnum()) {
+                return type.getEnumConstants()[0];
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                Class<?> element = ResolvableType.forMethodParameter(MethodParameter.forParameter(parameter)).asCollection().resolveGeneric(0);
+                if (element != null && element.isEnum()) {
+                    return List.of(element.getEnumConstants());
+                }
+                return element == Long.class ? List.of(itemId) : null;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.alma.todolistapplication.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What MySQL/MariaDB's {@code EXPLAIN} says about one statement: a step per table it reads, or
+ * the reason the statement couldn't be explained.
+ */
+public record QueryPlan(String sql, List<Step> steps, String error) {
+
+    public record Step(String table, String accessType, String key, Long rows, String extra) {
+    }
+
+    /**
+     * What an index could fix: reading a whole table or index, sorting or a temporary table. Each
+     * only counts when the optimizer expects at least {@code minRows} rows at that step; on a small
+     * table, or after a selective lookup, it is the right plan.
+     */
+    public List<String> problems(long minRows) {
+        List<String> problems = new ArrayList<>();
+        for (Step step : steps) {
+            long rows = step.rows() == null ? 0 : step.rows();
+            if (rows < minRows) {
+                continue;
+            }
+            String table = tableName(step.table());
+            String extra = step.extra() == null ? "" : step.extra();
+            if ("ALL".equals(step.accessType())) {
+                problems.add("full scan of " + table + " (~" + rows + " rows)");
+            } else if ("index".equals(step.accessType())) {
+                problems.add("full scan of index " + step.key() + " on " + table + " (~" + rows + " rows)");
+            }
+            if (extra.contains("Using filesort")) {
+                problems.add("filesort on " + table + " (~" + rows + " rows)");
+            }
+            if (extra.contains("Using temporary")) {
+                problems.add("temporary table for " + table);
+            }
+        }
+        return problems;
+    }
+
+    // EXPLAIN names tables by their alias (Hibernate's ti1_0 and the like); the SQL says which table that is
+    private String tableName(String alias) {
+        if (alias == null) {
+            return "?";
+        }
+        Matcher table = Pattern.compile("(\\w+)\\s+(?:as\\s+)?" + Pattern.quote(alias) + "\\b(?!\\.)", Pattern.CASE_INSENSITIVE).matcher(sql);
+        return table.find() && !table.group(1).equalsIgnoreCase("from") ? table.group(1) : alias;
+    }
+}
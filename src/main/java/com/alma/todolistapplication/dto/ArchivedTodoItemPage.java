@@ -0,0 +1,19 @@
+package com.alma.todolistapplication.dto;
+
+import com.alma.todolistapplication.model.ArchivedTodoItem;
+
+import java.util.List;
+
+/**
+ * One page of a user's archive, in the same order and with the same cursor as {@link TodoItemPage}.
+ */
+public record ArchivedTodoItemPage(List<ArchivedTodoItem> items, TodoCursor nextCursor) {
+
+    public ArchivedTodoItemPage {
+        items = List.copyOf(items);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.alma.todolistapplication.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkCreateRequest(
+        @NotEmpty(message = "items cannot be empty")
+        @Size(max = BulkIdsRequest.MAX_ITEMS, message = "At most " + BulkIdsRequest.MAX_ITEMS + " items per request")
+        List<@NotNull @Valid CreateTodoRequest> items) {
+}
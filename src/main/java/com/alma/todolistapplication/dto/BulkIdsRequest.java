@@ -0,0 +1,15 @@
+package com.alma.todolistapplication.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkIdsRequest(
+        @NotEmpty(message = "ids cannot be empty")
+        @Size(max = BulkIdsRequest.MAX_ITEMS, message = "At most " + BulkIdsRequest.MAX_ITEMS + " ids per request")
+        List<@NotNull Long> ids) {
+
+    public static final int MAX_ITEMS = 1000;
+}
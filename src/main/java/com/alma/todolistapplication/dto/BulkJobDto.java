@@ -0,0 +1,18 @@
+package com.alma.todolistapplication.dto;
+
+import com.alma.todolistapplication.model.BulkJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a whole-list operation. Poll {@code GET /api/todos/jobs/{id}} until {@code status}
+ * is DONE or FAILED; {@code processed} counts the items changed so far.
+ */
+public record BulkJobDto(Long id, BulkJob.Type type, BulkJob.Status status, long processed,
+                         LocalDateTime createdAt, LocalDateTime finishedAt, String error) {
+
+    public static BulkJobDto from(BulkJob job) {
+        return new BulkJobDto(job.getId(), job.getType(), job.getStatus(), job.getProcessed(),
+                job.getCreatedAt(), job.getFinishedAt(), job.getError());
+    }
+}
@@ -0,0 +1,5 @@
+package com.alma.todolistapplication.dto;
+
+// Number of items a multi-item operation actually changed (ids owned by others are skipped)
+public record BulkResult(int affected) {
+}
@@ -0,0 +1,10 @@
+package com.alma.todolistapplication.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.time.LocalDateTime;
+
+public record CreateTodoRequest(
+        @NotBlank(message = "Description cannot be empty") String description,
+        LocalDateTime dueDate) { // Optional
+}
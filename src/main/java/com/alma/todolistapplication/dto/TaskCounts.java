@@ -0,0 +1,11 @@
+package com.alma.todolistapplication.dto;
+
+/**
+ * Header counters for a user's to-do list.
+ */
+public record TaskCounts(long total, long active, long completed) {
+
+    public static TaskCounts of(long total, long completed) {
+        return new TaskCounts(total, total - completed, completed);
+    }
+}
@@ -0,0 +1,46 @@
+package com.alma.todolistapplication.dto;
+
+import com.alma.todolistapplication.model.ArchivedTodoItem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's to-do list ordered by {@code (createdAt DESC, id DESC)}.
+ * The next page starts strictly after this position, so fetching it is an index seek
+ * instead of an OFFSET scan.
+ */
+public record TodoCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "_";
+
+    public static TodoCursor of(TodoItemDto item) {
+        return new TodoCursor(item.createdAt(), item.id());
+    }
+
+    public static TodoCursor of(ArchivedTodoItem item) {
+        return new TodoCursor(item.getCreatedAt(), item.getId());
+    }
+
+    // Opaque, URL-safe token so clients don't depend on the cursor's internals
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new TodoCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) { // NumberFormatException is an IllegalArgumentException
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.alma.todolistapplication.dto;
+
+import java.util.List;
+
+// Outcome of an import: records added, records skipped as invalid, and why (the first few reasons, by line)
+public record TodoImportResult(long imported, long rejected, List<String> errors) {
+}
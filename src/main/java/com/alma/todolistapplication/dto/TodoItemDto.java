@@ -0,0 +1,23 @@
+package com.alma.todolistapplication.dto;
+
+import com.alma.todolistapplication.model.ArchivedTodoItem;
+import com.alma.todolistapplication.model.TodoItem;
+
+import java.time.LocalDateTime;
+
+/**
+ * JSON view of a to-do item for the REST API. Never exposes the owning user.
+ */
+public record TodoItemDto(Long id, String description, boolean completed,
+                          LocalDateTime createdAt, LocalDateTime completedAt, LocalDateTime dueDate) {
+
+    public static TodoItemDto from(TodoItem item) {
+        return new TodoItemDto(item.getId(), item.getDescription(), item.isCompleted(),
+                item.getCreatedAt(), item.getCompletedAt(), item.getDueDate());
+    }
+
+    public static TodoItemDto from(ArchivedTodoItem item) {
+        return new TodoItemDto(item.getId(), item.getDescription(), true,
+                item.getCreatedAt(), item.getCompletedAt(), item.getDueDate());
+    }
+}
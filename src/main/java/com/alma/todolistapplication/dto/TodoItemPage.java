@@ -0,0 +1,21 @@
+package com.alma.todolistapplication.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's to-do list, as snapshots of its items. {@code nextCursor} is null on the last page.
+ */
+public record TodoItemPage(List<TodoItemDto> items, TodoCursor nextCursor) {
+
+    public TodoItemPage {
+        items = List.copyOf(items);
+    }
+
+    public static TodoItemPage empty() {
+        return new TodoItemPage(List.of(), null);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.alma.todolistapplication.dto;
+
+import java.util.List;
+
+/**
+ * One page of the REST list. Pass {@code nextCursor} back as {@code ?cursor=} to get the next page;
+ * it is null on the last page.
+ */
+public record TodoItemPageDto(List<TodoItemDto> items, String nextCursor) {
+
+    public static TodoItemPageDto from(TodoItemPage page) {
+        return new TodoItemPageDto(page.items(), page.hasNext() ? page.nextCursor().encode() : null);
+    }
+
+    public static TodoItemPageDto from(ArchivedTodoItemPage page) {
+        return new TodoItemPageDto(page.items().stream().map(TodoItemDto::from).toList(),
+                page.hasNext() ? page.nextCursor().encode() : null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.alma.todolistapplication.dto;
+
+import com.alma.todolistapplication.model.TodoItem;
+
+import java.util.List;
+
+/**
+ * One page of search hits, best match first. Pages are numbered from 0.
+ */
+public record TodoSearchResult(List<TodoItem> items, String query, int page, boolean hasNext) {
+
+    public TodoSearchResult {
+        items = List.copyOf(items);
+    }
+
+    public static TodoSearchResult empty(String query) {
+        return new TodoSearchResult(List.of(), query, 0, false);
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+}
@@ -0,0 +1,14 @@
+package com.alma.todolistapplication.dto;
+
+import java.util.List;
+
+/**
+ * One page of REST search hits. Ask for {@code ?page=page+1} while {@code hasNext} is true.
+ */
+public record TodoSearchResultDto(List<TodoItemDto> items, int page, boolean hasNext) {
+
+    public static TodoSearchResultDto from(TodoSearchResult result) {
+        return new TodoSearchResultDto(result.items().stream().map(TodoItemDto::from).toList(),
+                result.page(), result.hasNext());
+    }
+}
@@ -0,0 +1,8 @@
+package com.alma.todolistapplication.dto;
+
+/**
+ * A user's header counters together with the list version they belong to, read from the stats row at once.
+ * {@code listVersion} is null when the user has no stats row yet.
+ */
+public record VersionedTaskCounts(TaskCounts counts, Long listVersion) {
+}
@@ -0,0 +1,15 @@
+package com.alma.todolistapplication.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * A to-do item's reminder time or due date has arrived. Published by the reminder scheduler
+ * after it has re-checked the item is still open with that due date.
+ */
+public record TodoItemDueEvent(Long userId, Long itemId, String description, LocalDateTime dueDate, Kind kind) {
+
+    public enum Kind {
+        REMINDER, // app.reminders.lead-time before the due date
+        OVERDUE   // At the due date
+    }
+}
@@ -0,0 +1,11 @@
+package com.alma.todolistapplication.event;
+
+import java.util.List;
+
+// Items set to the given completion state
+public record TodoItemsCompletedEvent(Long userId, List<Long> itemIds, boolean completed, long listVersion) implements TodoListEvent {
+
+    public TodoItemsCompletedEvent {
+        itemIds = List.copyOf(itemIds);
+    }
+}
@@ -0,0 +1,11 @@
+package com.alma.todolistapplication.event;
+
+import java.util.List;
+
+// Items deleted. For multi-item deletes these are the requested ids, including any that weren't the user's.
+public record TodoItemsDeletedEvent(Long userId, List<Long> itemIds, long listVersion) implements TodoListEvent {
+
+    public TodoItemsDeletedEvent {
+        itemIds = List.copyOf(itemIds);
+    }
+}
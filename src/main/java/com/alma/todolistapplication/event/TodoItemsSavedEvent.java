@@ -0,0 +1,13 @@
+package com.alma.todolistapplication.event;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+
+import java.util.List;
+
+// Items created or updated, with their full new state
+public record TodoItemsSavedEvent(Long userId, List<TodoItemDto> items, long listVersion) implements TodoListEvent {
+
+    public TodoItemsSavedEvent {
+        items = List.copyOf(items);
+    }
+}
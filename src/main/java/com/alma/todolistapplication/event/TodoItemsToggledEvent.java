@@ -0,0 +1,12 @@
+package com.alma.todolistapplication.event;
+
+import java.util.List;
+
+// Items flipped by a multi-item toggle. The new state differs per item and isn't known without a read.
+// The ids are the ones the caller sent: ids that weren't the user's were skipped, but they are still listed here.
+public record TodoItemsToggledEvent(Long userId, List<Long> itemIds, long listVersion) implements TodoListEvent {
+
+    public TodoItemsToggledEvent {
+        itemIds = List.copyOf(itemIds);
+    }
+}
@@ -0,0 +1,5 @@
+package com.alma.todolistapplication.event;
+
+// Set-based change to an unknown subset of the list ("mark all completed", "clear completed")
+public record TodoListChangedEvent(Long userId, long listVersion) implements TodoListEvent {
+}
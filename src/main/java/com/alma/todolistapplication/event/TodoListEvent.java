@@ -0,0 +1,20 @@
+package com.alma.todolistapplication.event;
+
+/**
+ * A change to one user's to-do list, published by the to-do service inside its transaction.
+ * Listeners that act on the outside world should use
+ * {@code @TransactionalEventListener} so they only see changes that actually committed.
+ * <p>
+ * Events carry what the service already had in hand (it never reads rows just to publish), so
+ * the set-based operations report ids or only "something changed" and listeners that need
+ * more re-read it. {@code listVersion} is the version this change moved the list to, as
+ * {@link com.alma.todolistapplication.service.TaskStatsService#recordChange} returned it.
+ */
+public sealed interface TodoListEvent
+        permits TodoItemsSavedEvent, TodoItemsCompletedEvent, TodoItemsToggledEvent, TodoItemsDeletedEvent,
+        TodoListChangedEvent {
+
+    Long userId();
+
+    long listVersion();
+}
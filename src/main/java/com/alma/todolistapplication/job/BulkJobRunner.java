@@ -0,0 +1,124 @@
+package com.alma.todolistapplication.job;
+
+import com.alma.todolistapplication.model.BulkJob;
+import com.alma.todolistapplication.service.BulkJobService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link BulkJob}s off the request thread, one chunk transaction after another with a short
+ * pause in between, on a small pool of {@code app.bulk-jobs.threads}.
+ * <p>
+ * Jobs are recorded in {@code bulk_jobs} before they start, so nothing is lost with the node: a
+ * periodic sweep resumes any unfinished job that hasn't advanced for {@code stall-timeout}, here or
+ * on another node (it also runs shortly after startup). The job row is locked per chunk, so a job
+ * picked up twice is never processed in parallel.
+ */
+@Component
+public class BulkJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkJobRunner.class);
+
+    private final BulkJobService bulkJobService;
+    private final Duration chunkPause;
+    private final Duration stallTimeout;
+    private final ExecutorService executor;
+
+    // Jobs running on this node, so a resume sweep doesn't start a second worker on them
+    private final Map<Long, CompletableFuture<BulkJob>> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BulkJobRunner(BulkJobService bulkJobService,
+                         @Value("${app.bulk-jobs.threads:2}") int threads,
+                         @Value("${app.bulk-jobs.chunk-pause:20ms}") Duration chunkPause,
+                         @Value("${app.bulk-jobs.stall-timeout:2m}") Duration stallTimeout) {
+        this.bulkJobService = bulkJobService;
+        this.chunkPause = chunkPause;
+        this.stallTimeout = stallTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the job unless it is already running here. Call after the transaction that submitted it
+     * has committed. The future completes with the finished job.
+     */
+    public CompletableFuture<BulkJob> start(Long jobId) {
+        // Registered before it runs, and unregistered outside any map operation: a job with nothing to do can finish
+        // before the callback is attached, which then runs inline, and mustn't be inside computeIfAbsent when it does
+        CompletableFuture<BulkJob> job = new CompletableFuture<>();
+        CompletableFuture<BulkJob> alreadyRunning = running.putIfAbsent(jobId, job);
+        if (alreadyRunning != null) {
+            return alreadyRunning;
+        }
+        job.whenComplete((finished, failure) -> running.remove(jobId, job));
+        try {
+            executor.execute(() -> {
+                try {
+                    job.complete(run(jobId));
+                } catch (RuntimeException e) {
+                    job.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) { // Shutting down: the sweep on the next start resumes it
+            job.completeExceptionally(e);
+        }
+        return job;
+    }
+
+    private BulkJob run(Long jobId) {
+        try {
+            BulkJob job = bulkJobService.processNextChunk(jobId);
+            while (!job.isFinished()) {
+                Thread.sleep(chunkPause.toMillis()); // Lets the user's own requests in between chunks
+                job = bulkJobService.processNextChunk(jobId);
+            }
+            return job;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Shutting down: the sweep on the next start resumes it
+            throw new IllegalStateException("Bulk job " + jobId + " interrupted", e);
+        } catch (RuntimeException e) {
+            logger.error("Bulk job {} failed: {}", jobId, e.getMessage(), e);
+            bulkJobService.markFailed(jobId, e.getMessage());
+            throw e;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.bulk-jobs.resume-interval:PT1M}", fixedDelayString = "${app.bulk-jobs.resume-interval:PT1M}")
+    public void resumeStalledJobs() {
+        for (Long jobId : bulkJobService.findStalledJobIds(LocalDateTime.now().minus(stallTimeout))) {
+            if (!running.containsKey(jobId)) {
+                logger.info("Resuming stalled bulk job {}", jobId);
+                start(jobId);
+            }
+        }
+    }
+
+    int runningCount() {
+        return running.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,228 @@
+package com.alma.todolistapplication.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bulk-loads synthetic users and to-do items straight into the schema, for load tests at
+ * production scale. Runs once and exits when the {@code datagen} profile is active (see
+ * application-datagen.properties).
+ * <p>
+ * Users are {@code <prefix>-0000000}, {@code <prefix>-0000001}, ... with the same password, numbered on
+ * from any earlier run. The first {@code heavy-users} get {@code heavy-items} items each; the rest
+ * get a log-normal count with median {@code typical-items}, so most lists are short and a few are
+ * long. Items are spread over the past year. Older ones are more likely completed, and a share have
+ * a due date a few weeks after creation, so both overdue and upcoming ones exist. Counters
+ * ({@code user_task_stats}) are written to match.
+ * <p>
+ * To-do ids come from a range reserved on {@code todo_items_seq}, and the sequence is moved past it,
+ * so a running application keeps allocating ids that don't collide.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final int ID_ALLOCATION_SIZE = 50; // As on TodoItem's @SequenceGenerator
+    private static final Duration HISTORY = Duration.ofDays(365);
+
+    private static final String[] VERBS = {"Call", "Email", "Review", "Buy", "Book", "Fix", "Plan", "Write", "Pay", "Clean"};
+    private static final String[] OBJECTS = {"the quarterly report", "groceries", "the dentist", "car insurance", "the garden",
+            "team retrospective", "mum", "the landlord", "flight tickets", "the kitchen tap", "birthday present", "tax return"};
+    private static final String[] DETAILS = {"", " before Friday", " for the weekend", " (urgent)", " again", " with Sam", " after lunch"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.datagen.users:1000}")
+    private int users;
+    @Value("${app.datagen.heavy-users:3}")
+    private int heavyUsers;
+    @Value("${app.datagen.heavy-items:100000}")
+    private int heavyItems;
+    @Value("${app.datagen.typical-items:10}")
+    private int typicalItems;
+    @Value("${app.datagen.completed-ratio:0.4}")
+    private double completedRatio;
+    @Value("${app.datagen.due-date-ratio:0.3}")
+    private double dueDateRatio;
+    @Value("${app.datagen.username-prefix:gen}")
+    private String usernamePrefix;
+    @Value("${app.datagen.password:password}")
+    private String password;
+    @Value("${app.datagen.batch-size:5000}")
+    private int batchSize;
+    @Value("${app.datagen.seed:42}")
+    private long seed;
+
+    @Autowired
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                                  ConfigurableApplicationContext context) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        Random random = new Random(seed);
+        int[] itemCounts = new int[users];
+        long totalItems = 0;
+        for (int i = 0; i < users; i++) {
+            itemCounts[i] = i < heavyUsers ? heavyItems
+                    : (int) Math.min(heavyItems, Math.max(1, Math.round(typicalItems * Math.exp(random.nextGaussian()))));
+            totalItems += itemCounts[i];
+        }
+        logger.info("Generating {} users ({} with {} items) and {} to-do items", users, Math.min(users, heavyUsers), heavyItems, totalItems);
+
+        int firstNumber = countExistingUsers();
+        long nextItemId = reserveItemIds(totalItems);
+        String passwordHash = passwordEncoder.encode(password); // One hash for everyone: BCrypt per user would take hours
+        LocalDateTime now = LocalDateTime.now();
+
+        long itemsWritten = 0;
+        for (int start = 0; start < users; start += batchSize) {
+            int end = Math.min(users, start + batchSize);
+            List<Long> userIds = insertUsers(firstNumber + start, firstNumber + end, passwordHash);
+            List<Object[]> statsRows = new ArrayList<>(userIds.size());
+            List<Object[]> itemRows = new ArrayList<>(batchSize);
+            for (int i = start; i < end; i++) {
+                Long userId = userIds.get(i - start);
+                int count = itemCounts[i];
+                int completed = 0;
+                for (int n = 0; n < count; n++) {
+                    Object[] row = itemRow(nextItemId++, userId, n, count, now, random);
+                    if ((Boolean) row[2]) {
+                        completed++;
+                    }
+                    itemRows.add(row);
+                    if (itemRows.size() == batchSize) {
+                        insertItems(itemRows);
+                        itemsWritten += itemRows.size();
+                        itemRows.clear();
+                    }
+                }
+                statsRows.add(new Object[]{userId, count, completed});
+            }
+            insertItems(itemRows);
+            itemsWritten += itemRows.size();
+            jdbcTemplate.batchUpdate("INSERT INTO user_task_stats (user_id, total_count, completed_count, list_version) VALUES (?, ?, ?, 0)", statsRows);
+            logger.info("{} of {} users, {} of {} items written", end, users, itemsWritten, totalItems);
+        }
+        logger.info("Generated {} users and {} items in {} s", users, itemsWritten, Duration.ofNanos(System.nanoTime() - started).toSeconds());
+        SpringApplication.exit(context);
+    }
+
+    private int countExistingUsers() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, usernamePrefix + "-%");
+        return existing == null ? 0 : existing;
+    }
+
+    // Zero-padded, so a range of numbers is a range of usernames
+    private String username(int number) {
+        return String.format("%s-%07d", usernamePrefix, number);
+    }
+
+    private List<Long> insertUsers(int fromNumber, int toNumber, String passwordHash) {
+        List<Object[]> rows = new ArrayList<>(toNumber - fromNumber);
+        for (int number = fromNumber; number < toNumber; number++) {
+            String username = username(number);
+            rows.add(new Object[]{username, passwordHash, username + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, password, email, enabled) VALUES (?, ?, ?, TRUE)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username BETWEEN ? AND ? ORDER BY username",
+                Long.class, username(fromNumber), username(toNumber - 1));
+    }
+
+    // id, user_id, completed, description, created_at, completed_at, due_date
+    private Object[] itemRow(long id, Long userId, int index, int count, LocalDateTime now, Random random) {
+        double age = 1.0 - (index + random.nextDouble()) / count; // Oldest first, like the ids
+        LocalDateTime createdAt = now.minusSeconds((long) (age * HISTORY.toSeconds()));
+        boolean completed = random.nextDouble() < Math.min(0.95, completedRatio * 2 * age);
+        LocalDateTime completedAt = completed ? min(now, createdAt.plusMinutes(random.nextInt(14 * 24 * 60))) : null;
+        LocalDateTime dueDate = random.nextDouble() < dueDateRatio
+                ? createdAt.plusHours(1 + random.nextInt(30 * 24)).withMinute(0).withSecond(0).withNano(0)
+                : null;
+        String description = VERBS[random.nextInt(VERBS.length)] + " " + OBJECTS[random.nextInt(OBJECTS.length)]
+                + DETAILS[random.nextInt(DETAILS.length)];
+        return new Object[]{id, userId, completed, description, Timestamp.valueOf(createdAt),
+                completedAt == null ? null : Timestamp.valueOf(completedAt), dueDate == null ? null : Timestamp.valueOf(dueDate)};
+    }
+
+    private void insertItems(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO todo_items (id, user_id, completed, description, created_at, completed_at, due_date, version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Takes {@code count} ids above both the highest id in use and any block Hibernate has handed
+     * out, then moves {@code todo_items_seq} so its next block starts after them. On MySQL the
+     * sequence is a one-row table; databases with real sequences (H2, MariaDB) use those. A
+     * sequence can't be moved relative to its own value, so there a block the application fetches
+     * between reading and restarting it may overlap the range: load those with the application stopped.
+     */
+    private long reserveItemIds(long count) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM todo_items", Long.class);
+        if (isSequenceTable()) {
+            // One relative update, so a block fetched concurrently by the application is either before the range or after
+            // it. The new value comes back from the update itself (LAST_INSERT_ID on the same connection): reading next_val
+            // afterwards could already see the application's next block
+            Long next = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try (PreparedStatement update = connection.prepareStatement(
+                        "UPDATE todo_items_seq SET next_val = LAST_INSERT_ID(GREATEST(next_val, ?) + ?)")) {
+                    update.setLong(1, maxId + 1);
+                    update.setLong(2, count + ID_ALLOCATION_SIZE);
+                    update.executeUpdate();
+                }
+                try (Statement select = connection.createStatement();
+                     ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                    result.next();
+                    return result.getLong(1);
+                }
+            });
+            return next - count - ID_ALLOCATION_SIZE;
+        }
+        Long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR todo_items_seq", Long.class);
+        long first = Math.max(maxId, next) + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE todo_items_seq RESTART WITH " + (first + count + ID_ALLOCATION_SIZE));
+        return first;
+    }
+
+    private boolean isSequenceTable() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, "todo_items_seq", new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,61 @@
+package com.alma.todolistapplication.job;
+
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically recounts every user's items and repairs {@code user_task_stats} rows that have
+ * drifted (e.g. after manual SQL) or are missing (users that predate the table).
+ * Each user is reconciled in its own short transaction so the job never holds locks for long.
+ */
+@Component
+public class TaskStatsReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatsReconciliationJob.class);
+
+    private final UserRepository userRepository;
+    private final TaskStatsService taskStatsService;
+    private final int batchSize;
+
+    @Autowired
+    public TaskStatsReconciliationJob(UserRepository userRepository, TaskStatsService taskStatsService,
+                                      @Value("${app.stats.reconcile-batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.taskStatsService = taskStatsService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${app.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        long started = System.currentTimeMillis();
+        int checked = 0;
+        int corrected = 0;
+        Long lastUserId = 0L;
+        List<Long> userIds;
+        do {
+            userIds = userRepository.findIdsAfter(lastUserId, PageRequest.of(0, batchSize));
+            for (Long userId : userIds) {
+                try {
+                    if (taskStatsService.reconcileUser(userId)) {
+                        corrected++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Could not reconcile task stats for user {}: {}", userId, e.getMessage(), e);
+                }
+                checked++;
+                lastUserId = userId;
+            }
+        } while (userIds.size() == batchSize);
+        logger.info("Task stats reconciliation checked {} users, corrected {} in {} ms",
+                checked, corrected, System.currentTimeMillis() - started);
+    }
+}
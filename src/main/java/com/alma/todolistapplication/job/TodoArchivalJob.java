@@ -0,0 +1,74 @@
+package com.alma.todolistapplication.job;
+
+import com.alma.todolistapplication.service.TodoArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves items completed more than {@code completed-age} ago into {@code archived_todo_items}, so
+ * {@code todo_items} stays the size of what users are actually working on. Runs in small batches,
+ * each its own short transaction with a pause in between, so user requests touching the same rows
+ * or counters never wait long. One run stops after {@code max-batches}; the next picks up the rest.
+ */
+@Component
+public class TodoArchivalJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoArchivalJob.class);
+
+    private final TodoArchiveService archiveService;
+    private final boolean enabled;
+    private final Duration completedAge;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration batchPause;
+
+    @Autowired
+    public TodoArchivalJob(TodoArchiveService archiveService,
+                           @Value("${app.archive.enabled:true}") boolean enabled,
+                           @Value("${app.archive.completed-age:30d}") Duration completedAge,
+                           @Value("${app.archive.batch-size:500}") int batchSize,
+                           @Value("${app.archive.max-batches:200}") int maxBatches,
+                           @Value("${app.archive.batch-pause:200ms}") Duration batchPause) {
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+        this.completedAge = completedAge;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 15 * * * *}")
+    public void archiveCompleted() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(completedAge);
+        int archived = 0;
+        int batches = 0;
+        try {
+            int moved;
+            do {
+                moved = archiveService.archiveCompletedBefore(cutoff, batchSize);
+                archived += moved;
+                batches++;
+                if (moved == batchSize && batches < maxBatches) {
+                    Thread.sleep(batchPause.toMillis());
+                }
+            } while (moved == batchSize && batches < maxBatches);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Shutting down: the rest waits for the next run
+        } catch (RuntimeException e) {
+            logger.error("Archival batch failed after {} items, retrying next run: {}", archived, e.getMessage(), e);
+        }
+        logger.info("Archived {} items completed before {} in {} batches, {} ms",
+                archived, cutoff, batches, System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,348 @@
+package com.alma.todolistapplication.live;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.event.TodoItemDueEvent;
+import com.alma.todolistapplication.event.TodoItemsCompletedEvent;
+import com.alma.todolistapplication.event.TodoItemsDeletedEvent;
+import com.alma.todolistapplication.event.TodoItemsSavedEvent;
+import com.alma.todolistapplication.event.TodoItemsToggledEvent;
+import com.alma.todolistapplication.event.TodoListEvent;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes changes to users' to-do lists to their open pages over Server-Sent Events.
+ * <p>
+ * Each {@link TodoListEvent} the to-do service publishes becomes, after commit, one small
+ * {@link TodoListDelta}: the changed items or ids, plus the new counters and the list version the
+ * change produced. The delta is serialized once and fanned out to every page the user has open.
+ * <p>
+ * Nothing is read for users with no open page. Otherwise a change costs a stats-row read for the
+ * counters (and for a multi-item toggle, a read of the toggled items), however many tabs are open. Those reads
+ * run on the sender pool, one change at a time per user so deltas go out in commit order, never in
+ * the request that made the change: a failure there costs the user's pages a {@code resync}, not
+ * the writer an error. Set-based changes that don't name their items ("clear completed") send a
+ * {@code resync}, and the page reloads.
+ * <p>
+ * Emitters are async servlet responses, so an idle connection holds a socket but no thread.
+ * Each connection has a bounded queue, drained by a small shared sender pool (a virtual thread per
+ * drain in the virtual-threads profile), so a slow client never holds up the request that made the
+ * change. A client that falls {@code queue-capacity}
+ * events behind loses its queued deltas and gets a single {@code resync} in their place.
+ * <p>
+ * Every delta carries its list version as the SSE event id: the one its own change produced, not
+ * whatever the list is at when it is sent, which a later change may already have moved past. A
+ * reconnecting page (or a new one, via {@code since}) whose last version is not the current one
+ * gets a {@code resync} too.
+ */
+@Component
+public class TodoListBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoListBroadcaster.class);
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<Set<DataWithMediaType>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean(); // Set once: the drain and the container's callbacks both close it
+        volatile boolean resyncPending;
+
+        Subscriber(Long userId, SseEmitter emitter, int queueCapacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    private final TaskStatsService taskStatsService;
+    private final TodoItemRepository todoItemRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final int queueCapacity;
+    private final int maxConnections;
+    private final Executor sender;
+    private final Counter resyncCounter;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // The last delta being built per user, so the next one starts after it
+    private final Map<Long, CompletableFuture<Void>> publishing = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    // Built once and shared: every send of these writes the same bytes
+    private final Set<DataWithMediaType> resyncEvent = SseEmitter.event().name("resync").data("").build();
+    private final Set<DataWithMediaType> heartbeatEvent = SseEmitter.event().comment("").build();
+
+    @Autowired
+    public TodoListBroadcaster(TaskStatsService taskStatsService,
+                               TodoItemRepository todoItemRepository,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               Environment environment,
+                               @Value("${app.live.timeout:30m}") Duration timeout,
+                               @Value("${app.live.queue-capacity:32}") int queueCapacity,
+                               @Value("${app.live.max-connections:5000}") int maxConnections,
+                               @Value("${app.live.sender-threads:4}") int senderThreads) {
+        this.taskStatsService = taskStatsService;
+        this.todoItemRepository = todoItemRepository;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.queueCapacity = queueCapacity;
+        this.maxConnections = maxConnections;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.sender = new VirtualThreadTaskExecutor("live-sender-"); // A write stuck on a slow client parks only its own thread
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "live-sender-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.resyncCounter = meterRegistry.counter("live.resyncs");
+        Gauge.builder("live.connections", connections, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the user's list changes. {@code lastSeenVersion} is the list version the page
+     * was rendered at (or last received); if the list has moved on since, the stream starts with a resync.
+     */
+    public SseEmitter subscribe(Long userId, Long lastSeenVersion) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            // The page keeps working without live updates; EventSource retries later
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live connections");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, queueCapacity);
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> updated = userSubscribers != null ? userSubscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        if (lastSeenVersion != null) {
+            // Off the request thread, so the stream never holds a pooled connection (it would with open-in-view on).
+            // Registered before the read, so a concurrent change is either counted in the version or on its way as a delta.
+            execute(() -> {
+                if (!taskStatsService.getListVersion(userId).equals(Optional.of(lastSeenVersion))) {
+                    resync(subscriber);
+                }
+            });
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoListEvent(TodoListEvent event) {
+        Long userId = event.userId();
+        if (!subscribers.containsKey(userId)) {
+            return;
+        }
+        // Chained outside compute(): a task that is already done runs whenComplete inline
+        CompletableFuture<Void> next = publishing.compute(userId, (id, previous) ->
+                (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                        .thenRunAsync(() -> publish(event), sender));
+        next.whenComplete((done, failure) -> publishing.remove(userId, next));
+    }
+
+    @EventListener
+    public void onTodoItemDue(TodoItemDueEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.userId());
+        if (targets != null) {
+            Set<DataWithMediaType> message = SseEmitter.event().name("due").data(toJson(event)).build();
+            targets.forEach(subscriber -> enqueue(subscriber, message));
+        }
+    }
+
+    // Keeps idle connections from being cut by proxies, and finds clients that went away without closing
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-interval:PT25S}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> enqueue(subscriber, heartbeatEvent)));
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    // Runs before the web server's graceful shutdown, which would otherwise wait out its timeout on the open
+    // streams. Browsers reconnect, to another node or to this one once it is back.
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void publish(TodoListEvent event) {
+        Long userId = event.userId();
+        Set<Subscriber> targets = subscribers.get(userId);
+        if (targets == null) {
+            return; // The last page closed in the meantime
+        }
+        try {
+            if (event instanceof TodoItemsSavedEvent saved) {
+                publish(targets, TodoListDelta.saved(saved.items(), counts(userId), saved.listVersion()));
+            } else if (event instanceof TodoItemsCompletedEvent completed) {
+                publish(targets, TodoListDelta.completed(completed.itemIds(), completed.completed(), counts(userId), completed.listVersion()));
+            } else if (event instanceof TodoItemsToggledEvent toggled) {
+                // Each item flipped its own way: read back the new state of the user's items among the ids
+                publish(targets, TodoListDelta.saved(
+                        todoItemRepository.findByUserIdAndIdIn(userId, toggled.itemIds()).stream().map(TodoItemDto::from).toList(),
+                        counts(userId), toggled.listVersion()));
+            } else if (event instanceof TodoItemsDeletedEvent deleted) {
+                publish(targets, TodoListDelta.deleted(deleted.itemIds(), counts(userId), deleted.listVersion()));
+            } else {
+                targets.forEach(this::resync);
+            }
+        } catch (RuntimeException e) {
+            // Database busy or failing: the pages can't be told what changed, so they reload
+            logger.warn("Could not build a live update for user {}, sending resync: {}", userId, e.getMessage());
+            targets.forEach(this::resync);
+        }
+    }
+
+    // The counters are read after the change committed, so they are never older than the version they're sent with
+    private void publish(Set<Subscriber> targets, TodoListDelta delta) {
+        Set<DataWithMediaType> message = SseEmitter.event().name("delta").data(toJson(delta))
+                .id(delta.version().toString()) // Sent back as Last-Event-ID when EventSource reconnects
+                .build();
+        targets.forEach(subscriber -> enqueue(subscriber, message));
+    }
+
+    private TaskCounts counts(Long userId) {
+        return taskStatsService.getCountsForUser(userId);
+    }
+
+    private void resync(Subscriber subscriber) {
+        subscriber.queue.clear(); // Superseded: the page reloads everything anyway
+        subscriber.resyncPending = true;
+        scheduleDrain(subscriber);
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(message)) {
+            resyncCounter.increment();
+            logger.debug("Live update queue full for user {}, sending resync", subscriber.userId);
+            resync(subscriber);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    // At most one drain per subscriber is queued or running, so its messages go out in order
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            if (!execute(() -> drain(subscriber))) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            sender.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // Shutting down
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed.get()) {
+                Set<DataWithMediaType> next;
+                if (subscriber.resyncPending) {
+                    subscriber.resyncPending = false;
+                    next = resyncEvent;
+                } else {
+                    next = subscriber.queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                }
+                subscriber.emitter.send(next);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client gone, or emitter already completed: the container reports the error to the emitter too
+            logger.debug("Dropping live connection of user {}: {}", subscriber.userId, e.getMessage());
+            unsubscribe(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Something arrived after the last poll but before the flag was cleared
+        if (!subscriber.closed.get() && (subscriber.resyncPending || !subscriber.queue.isEmpty())) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return; // Already counted out
+        }
+        subscriber.queue.clear();
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize live update", e);
+        }
+    }
+}
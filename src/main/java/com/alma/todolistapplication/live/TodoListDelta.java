@@ -0,0 +1,35 @@
+package com.alma.todolistapplication.live;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One change to a user's list as pushed to their open pages: what changed plus the counters and list
+ * version right after it. {@code version} orders deltas from concurrent requests, so a page never shows
+ * older counters than it already has.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TodoListDelta(Type type, List<TodoItemDto> items, List<Long> itemIds, Boolean completed,
+                            TaskCounts counts, Long version) {
+
+    public enum Type {
+        SAVED,     // items: created or updated, full new state
+        COMPLETED, // itemIds set to completed
+        DELETED    // itemIds removed
+    }
+
+    public static TodoListDelta saved(List<TodoItemDto> items, TaskCounts counts, Long version) {
+        return new TodoListDelta(Type.SAVED, items, null, null, counts, version);
+    }
+
+    public static TodoListDelta completed(List<Long> itemIds, boolean completed, TaskCounts counts, Long version) {
+        return new TodoListDelta(Type.COMPLETED, null, itemIds, completed, counts, version);
+    }
+
+    public static TodoListDelta deleted(List<Long> itemIds, TaskCounts counts, Long version) {
+        return new TodoListDelta(Type.DELETED, null, itemIds, null, counts, version);
+    }
+}
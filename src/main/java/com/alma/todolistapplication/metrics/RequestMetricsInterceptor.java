@@ -0,0 +1,89 @@
+package com.alma.todolistapplication.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request measurements that {@code http.server.requests} doesn't break out:
+ * <ul>
+ * <li>{@code app.request.statements}: SQL statements Hibernate ran for the handler and its view,
+ * tagged with the handler's URI pattern and HTTP method;</li>
+ * <li>{@code app.view.render}: template render time, tagged with the view name (redirects aren't
+ * rendered and aren't timed).</li>
+ * </ul>
+ * Only controller handlers are measured, from handler entry to the end of rendering; statements run
+ * by the security filters (a login, a stateless session's user lookup) fall outside that window,
+ * and async handlers (the SSE stream) are not measured.
+ */
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String RENDER_STARTED = RequestMetricsInterceptor.class.getName() + ".renderStarted";
+    private static final String VIEW_NAME = RequestMetricsInterceptor.class.getName() + ".viewName";
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsInterceptor(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            statementCounter.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        String viewName = modelAndView == null ? null : modelAndView.getViewName();
+        if (viewName != null && !viewName.startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)
+                && !viewName.startsWith(UrlBasedViewResolver.FORWARD_URL_PREFIX)) {
+            request.setAttribute(VIEW_NAME, viewName);
+            request.setAttribute(RENDER_STARTED, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        statementCounter.end(); // The request thread moves on to other work
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod)) {
+            return;
+        }
+        if (request.getAttribute(RENDER_STARTED) instanceof Long started) {
+            Timer.builder("app.view.render")
+                    .description("Template render time")
+                    .tag("view", (String) request.getAttribute(VIEW_NAME))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            request.removeAttribute(RENDER_STARTED);
+        }
+        int statements = statementCounter.end();
+        if (statements >= 0) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("app.request.statements")
+                    .description("SQL statements per request")
+                    .baseUnit("statements")
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .tag("method", request.getMethod())
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alma.todolistapplication.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #begin()} and
+ * {@link #end()}; statements outside such a window are not counted. Registered as Hibernate's
+ * statement inspector, it leaves the SQL unchanged.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public void begin() {
+        count.set(new int[1]);
+    }
+
+    // Statements since begin(), or -1 if nothing was being counted
+    public int end() {
+        int[] counted = count.get();
+        count.remove();
+        return counted == null ? -1 : counted[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] counted = count.get();
+        if (counted != null) {
+            counted[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,48 @@
+package com.alma.todolistapplication.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed item moved out of {@code todo_items} by
+ * {@link com.alma.todolistapplication.job.TodoArchivalJob}, so the live table only holds what the
+ * list, counters and reminders actually read. Keeps the item's original id: ids come from
+ * {@code todo_items_seq} and are never reused, so a restored item goes back under the same id.
+ * Rows are only ever written by the set-based copies in
+ * {@link com.alma.todolistapplication.repository.ArchivedTodoItemRepository}.
+ */
+@Entity
+@Table(name = "archived_todo_items", indexes = {
+        // Browsing a user's archive, newest first, by the same keyset as the live list
+        @Index(name = "idx_archived_todo_items_user_created", columnList = "user_id, created_at, id")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedTodoItem {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime dueDate;
+
+    @Column(nullable = false)
+    private long version; // Carried over, and bumped again on restore
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+}
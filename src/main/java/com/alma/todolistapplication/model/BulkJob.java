@@ -0,0 +1,86 @@
+package com.alma.todolistapplication.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A whole-list operation ("mark all complete", "clear completed") run as a series of short
+ * transactions over one user's items in id order, see
+ * {@link com.alma.todolistapplication.service.BulkJobService}.
+ * <p>
+ * Progress is {@code lastId}: every item up to it has been handled, and it is saved in the same
+ * transaction as the chunk it covers. A job interrupted by a restart therefore picks up exactly
+ * where it stopped. Items added after the job started (above {@code maxId}) are left alone.
+ */
+@Entity
+@Table(name = "bulk_jobs", indexes = {
+        // Dedup lookup on submit, and the resume scan by status
+        @Index(name = "idx_bulk_jobs_user_type_status", columnList = "user_id, type, status"),
+        @Index(name = "idx_bulk_jobs_status_updated", columnList = "status, updated_at")
+})
+@Data
+@NoArgsConstructor
+public class BulkJob {
+
+    public enum Type {
+        MARK_ALL_COMPLETED,
+        DELETE_COMPLETED
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private long maxId; // Highest item id when the job was submitted
+
+    @Column(nullable = false)
+    private long lastId; // Items with ids up to here are done
+
+    @Column(nullable = false)
+    private long processed; // Items actually changed so far
+
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    public BulkJob(Long userId, Type type, long maxId) {
+        this.userId = userId;
+        this.type = type;
+        this.maxId = maxId;
+        this.status = Status.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
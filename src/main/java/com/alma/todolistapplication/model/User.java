@@ -1,5 +1,6 @@
 package com.alma.todolistapplication.model;
 
+import com.alma.todolistapplication.security.UserCacheInvalidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -16,19 +17,27 @@ import java.util.Collections;
 import java.util.List;
 
 @Entity
-@Table(name = "users") // Using "users" as "user" can be a reserved keyword in some SQL dialects
+@Table(name = "users", // Using "users" as "user" can be a reserved keyword in some SQL dialects
+        uniqueConstraints = { // Named so a violation can be told apart (see UserServiceImpl.registerNewUser)
+                @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+                @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+        })
+@EntityListeners(UserCacheInvalidationListener.class) // Keeps the login credentials cache in sync
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements UserDetails {
 
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50, message = "Username must be between 3 and 50 characters")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank(message = "Password is required")
@@ -38,7 +47,7 @@ public class User implements UserDetails {
 
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     private boolean enabled = true; // For Spring Security UserDetails
@@ -0,0 +1,38 @@
+package com.alma.todolistapplication.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user task counters, kept in step with {@code todo_items} by the service layer so the
+ * dashboard reads them with a single primary-key lookup instead of three COUNT(*) scans.
+ * {@code listVersion} is bumped by every change to the user's list, so clients can revalidate
+ * a cached copy (ETag) without touching {@code todo_items}.
+ * {@link com.alma.todolistapplication.job.TaskStatsReconciliationJob} repairs any drift.
+ */
+@Entity
+@Table(name = "user_task_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTaskStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId; // Same value as users.id, one row per user
+
+    @Column(nullable = false)
+    private long totalCount;
+
+    @Column(nullable = false)
+    private long completedCount;
+
+    @Column(nullable = false)
+    private long listVersion;
+
+    public long getActiveCount() {
+        return totalCount - completedCount;
+    }
+}
@@ -0,0 +1,195 @@
+package com.alma.todolistapplication.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical timing wheel: the timer scheme the Linux kernel and Kafka use for very large numbers of
+ * timers. Each level is a ring of 64 slots; a slot on level 0 covers one tick, a slot on level n covers
+ * 64^n ticks. A timer goes into the coarsest slot that still separates it from "now" and moves down a
+ * level ("cascades") when the wheel reaches that slot, so it is handled at most once per level.
+ * <p>
+ * {@link #schedule}, {@link #cancel} and {@link #get} are O(1): slots are intrusive doubly linked lists
+ * and a map finds a timer by key. Memory is one small node per pending timer, nothing per tick or slot
+ * beyond the fixed 64 x levels heads. Timers further out than {@link #getSpanMillis()} are refused.
+ * <p>
+ * Not thread-safe: callers serialise access.
+ *
+ * @param <K> timer key, e.g. a to-do item id; scheduling an existing key replaces its timer
+ * @param <V> value handed back when the timer fires
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private static final int LEVEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << LEVEL_BITS;
+    private static final int SLOT_MASK = WHEEL_SIZE - 1;
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long dueTick;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long tickMillis;
+    private final int levels;
+    private final long spanTicks;
+    private final Node<K, V>[][] slots; // Sentinel heads of circular lists, [level][slot]
+    private final Node<K, V> overdue;  // Timers that were already due when scheduled
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis < 1 || levels < 1 || LEVEL_BITS * levels >= 62) {
+            throw new IllegalArgumentException("Invalid wheel: tick " + tickMillis + "ms, " + levels + " levels");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.spanTicks = 1L << (LEVEL_BITS * levels);
+        this.slots = new Node[levels][WHEEL_SIZE];
+        for (Node<K, V>[] level : slots) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = sentinel();
+            }
+        }
+        this.overdue = sentinel();
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedules (or reschedules) the timer for {@code key}. Deadlines in the past fire on the next
+     * {@link #advanceTo}. Returns false, and leaves no timer for the key, if the deadline is beyond the span.
+     */
+    public boolean schedule(K key, V value, long deadlineMillis) {
+        cancel(key);
+        long dueTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis); // Never fire early
+        if (dueTick - currentTick >= spanTicks) {
+            return false;
+        }
+        Node<K, V> node = new Node<>(key);
+        node.value = value;
+        node.dueTick = dueTick;
+        nodes.put(key, node);
+        place(node);
+        return true;
+    }
+
+    public V cancel(K key) {
+        Node<K, V> node = nodes.remove(key);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.value;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = nodes.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public long getSpanMillis() {
+        return spanTicks * tickMillis;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and removes every timer that is due by then, handing
+     * them to {@code fired} in deadline order (per tick). Catching up after a pause costs one step per tick.
+     */
+    public void advanceTo(long nowMillis, BiConsumer<K, V> fired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        fireAll(overdue, fired);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Entering a new block of a coarser level: move that block's timers down before firing level 0
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (LEVEL_BITS * level)) - 1)) == 0) {
+                    cascade(slots[level][(int) (currentTick >>> (LEVEL_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            fireAll(slots[0][(int) currentTick & SLOT_MASK], fired);
+        }
+    }
+
+    private void place(Node<K, V> node) {
+        long delta = node.dueTick - currentTick;
+        if (delta <= 0) {
+            append(overdue, node);
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(delta)) / LEVEL_BITS; // Smallest level with delta < 64^(level+1)
+        append(slots[level][(int) (node.dueTick >>> (LEVEL_BITS * level)) & SLOT_MASK], node);
+    }
+
+    private void cascade(Node<K, V> head) {
+        List<Node<K, V>> moving = drain(head);
+        for (Node<K, V> node : moving) {
+            if (node.dueTick == currentTick) {
+                append(slots[0][(int) currentTick & SLOT_MASK], node); // Due on the tick being entered, which fires next
+            } else {
+                place(node);
+            }
+        }
+    }
+
+    private void fireAll(Node<K, V> head, BiConsumer<K, V> fired) {
+        if (head.next == head) {
+            return;
+        }
+        for (Node<K, V> node : drain(head)) {
+            nodes.remove(node.key);
+            fired.accept(node.key, node.value);
+        }
+    }
+
+    private List<Node<K, V>> drain(Node<K, V> head) {
+        List<Node<K, V>> drained = new ArrayList<>();
+        Node<K, V> node = head.next;
+        while (node != head) {
+            Node<K, V> next = node.next;
+            node.prev = null;
+            node.next = null;
+            drained.add(node);
+            node = next;
+        }
+        head.next = head;
+        head.prev = head;
+        return drained;
+    }
+
+    private static <K, V> Node<K, V> sentinel() {
+        Node<K, V> head = new Node<>(null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private static <K, V> void append(Node<K, V> head, Node<K, V> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.alma.todolistapplication.reminder;
+
+import java.time.LocalDateTime;
+
+// Projection of an open item with a due date: just what the reminder wheel needs to schedule it
+public record PendingReminder(Long itemId, Long userId, LocalDateTime dueDate) {
+}
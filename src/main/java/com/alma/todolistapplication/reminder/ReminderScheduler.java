@@ -0,0 +1,295 @@
+package com.alma.todolistapplication.reminder;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.event.TodoItemDueEvent;
+import com.alma.todolistapplication.event.TodoItemsCompletedEvent;
+import com.alma.todolistapplication.event.TodoItemsDeletedEvent;
+import com.alma.todolistapplication.event.TodoItemsSavedEvent;
+import com.alma.todolistapplication.event.TodoItemsToggledEvent;
+import com.alma.todolistapplication.event.TodoListEvent;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Publishes a {@link TodoItemDueEvent} for open to-do items with a due date: a REMINDER
+ * {@code app.reminders.lead-time} before the due date and OVERDUE at it.
+ * <p>
+ * At startup, due dates within {@code app.reminders.horizon} are streamed once into a
+ * {@link HierarchicalTimingWheel}. After that the wheel follows the {@link TodoListEvent}s the
+ * to-do service publishes on commit. A ticker thread advances the wheel every second.
+ * <p>
+ * Nothing polls the table for due items. The only other reads are:
+ * <ul>
+ *   <li>an extension of the horizon every {@code extend-interval}, loading just the newly covered window;</li>
+ *   <li>one id-batch read on a tick where something fired. This drops timers made stale by
+ *       set-based changes such as "mark all completed", which don't say which items they touched.</li>
+ * </ul>
+ * <p>
+ * The wheel and the events are per process, so it is off by default and meant for a deployment
+ * of one node. On several, each wheel would only learn of items created on other nodes when its
+ * horizon moved past them, and its events would only reach the live streams open on its own node.
+ */
+@Component
+public class ReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_LEVELS = 4; // 64^4 seconds: about 194 days
+
+    private record Reminder(Long userId, LocalDateTime dueDate, TodoItemDueEvent.Kind kind) {
+    }
+
+    private final TodoItemRepository todoItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration leadTime;
+    private final Duration horizon;
+    private final int maxPending;
+    private final MeterRegistry meterRegistry;
+    private final Counter droppedCounter;
+
+    // Guarded by this
+    private final HierarchicalTimingWheel<Long, Reminder> wheel;
+    private LocalDateTime loadedUntil; // Items due up to here are in the wheel; later ones come with the next extension
+
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public ReminderScheduler(TodoItemRepository todoItemRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reminders.enabled:false}") boolean enabled,
+                             @Value("${app.reminders.lead-time:15m}") Duration leadTime,
+                             @Value("${app.reminders.horizon:7d}") Duration horizon,
+                             @Value("${app.reminders.max-pending:500000}") int maxPending) {
+        this.todoItemRepository = todoItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.leadTime = leadTime;
+        this.horizon = horizon;
+        this.maxPending = maxPending;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_LEVELS, System.currentTimeMillis());
+        if (horizon.toMillis() >= wheel.getSpanMillis()) {
+            throw new IllegalArgumentException("app.reminders.horizon must be shorter than " + Duration.ofMillis(wheel.getSpanMillis()));
+        }
+        this.loadedUntil = LocalDateTime.now();
+        this.droppedCounter = meterRegistry.counter("reminders.dropped");
+        Gauge.builder("reminders.pending", this, ReminderScheduler::getPendingCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Due-date reminders disabled (app.reminders.enabled, single-node deployments only)");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = load(now, now.plus(horizon));
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Loaded {} due-date reminders for the next {} in {} ms",
+                loaded, horizon, System.currentTimeMillis() - started);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    // Slides the horizon forward: loads only the due dates that have come within reach since the last load
+    @Scheduled(fixedDelayString = "${app.reminders.extend-interval:PT1H}", initialDelayString = "${app.reminders.extend-interval:PT1H}")
+    public void extendHorizon() {
+        if (ticker == null) {
+            return;
+        }
+        LocalDateTime from;
+        synchronized (this) {
+            from = loadedUntil;
+        }
+        int loaded = load(from, LocalDateTime.now().plus(horizon));
+        logger.debug("Extended reminder horizon: {} reminders added, {} pending", loaded, getPendingCount());
+    }
+
+    // Keeps the wheel in step with committed changes; what an event leaves unknown is read back by id
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoListEvent(TodoListEvent event) {
+        if (ticker == null) {
+            return;
+        }
+        Long userId = event.userId();
+        if (event instanceof TodoItemsSavedEvent saved) {
+            for (TodoItemDto item : saved.items()) {
+                if (!item.completed() && item.dueDate() != null) {
+                    schedule(item.id(), userId, item.dueDate());
+                } else {
+                    cancel(item.id(), userId);
+                }
+            }
+        } else if (event instanceof TodoItemsCompletedEvent completed && completed.completed()) {
+            completed.itemIds().forEach(itemId -> cancel(itemId, userId));
+        } else if (event instanceof TodoItemsCompletedEvent reopened) {
+            reload(userId, reopened.itemIds());
+        } else if (event instanceof TodoItemsToggledEvent toggled) {
+            reload(userId, toggled.itemIds());
+        } else if (event instanceof TodoItemsDeletedEvent deleted) {
+            deleted.itemIds().forEach(itemId -> cancel(itemId, userId));
+        }
+        // TodoListChangedEvent only ever completes or deletes items: their timers are dropped when they fire
+    }
+
+    public synchronized int getPendingCount() {
+        return wheel.size();
+    }
+
+    private int load(LocalDateTime from, LocalDateTime to) {
+        // Move the bound first, so items committed while the query runs are scheduled by their events
+        synchronized (this) {
+            if (to.isAfter(loadedUntil)) {
+                loadedUntil = to;
+            }
+        }
+        int[] loaded = {0};
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<PendingReminder> pending = todoItemRepository.streamPendingReminders(from, to)) {
+                pending.forEach(reminder -> {
+                    if (schedule(reminder.itemId(), reminder.userId(), reminder.dueDate())) {
+                        loaded[0]++;
+                    }
+                });
+            }
+        });
+        return loaded[0];
+    }
+
+    private void reload(Long userId, List<Long> itemIds) {
+        List<PendingReminder> open = todoItemRepository.findPendingRemindersForUser(userId, itemIds);
+        Set<Long> openIds = new HashSet<>();
+        for (PendingReminder reminder : open) {
+            openIds.add(reminder.itemId());
+            schedule(reminder.itemId(), reminder.userId(), reminder.dueDate());
+        }
+        for (Long itemId : itemIds) {
+            if (!openIds.contains(itemId)) {
+                cancel(itemId, userId);
+            }
+        }
+    }
+
+    private synchronized boolean schedule(Long itemId, Long userId, LocalDateTime dueDate) {
+        if (dueDate.isAfter(loadedUntil)) {
+            wheel.cancel(itemId); // Moved out of reach; the horizon extension brings it back in time
+            return false;
+        }
+        if (wheel.size() >= maxPending && wheel.get(itemId) == null) {
+            droppedCounter.increment();
+            return false;
+        }
+        LocalDateTime remindAt = dueDate.minus(leadTime);
+        boolean remindFirst = !leadTime.isZero() && dueDate.isAfter(LocalDateTime.now());
+        Reminder reminder = new Reminder(userId, dueDate, remindFirst ? TodoItemDueEvent.Kind.REMINDER : TodoItemDueEvent.Kind.OVERDUE);
+        return wheel.schedule(itemId, reminder, toEpochMillis(remindFirst ? remindAt : dueDate));
+    }
+
+    // Ids in events can be someone else's (multi-item requests skip those), so only drop our own user's timer
+    private synchronized void cancel(Long itemId, Long userId) {
+        Reminder reminder = wheel.get(itemId);
+        if (reminder != null && reminder.userId().equals(userId)) {
+            wheel.cancel(itemId);
+        }
+    }
+
+    void tick() {
+        try {
+            List<Map.Entry<Long, Reminder>> due = new ArrayList<>();
+            synchronized (this) {
+                wheel.advanceTo(System.currentTimeMillis(), (itemId, reminder) -> due.add(Map.entry(itemId, reminder)));
+            }
+            if (!due.isEmpty()) {
+                fire(due);
+            }
+        } catch (RuntimeException e) {
+            // An exception escaping would cancel the fixed-rate schedule and silence every later reminder
+            logger.error("Reminder tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void fire(List<Map.Entry<Long, Reminder>> due) {
+        List<Long> itemIds = due.stream().map(Map.Entry::getKey).toList();
+        Map<Long, TodoItem> current = readOnlyTransaction.execute(status ->
+                todoItemRepository.findAllById(itemIds).stream().collect(Collectors.toMap(TodoItem::getId, Function.identity())));
+        for (Map.Entry<Long, Reminder> entry : due) {
+            Long itemId = entry.getKey();
+            Reminder reminder = entry.getValue();
+            TodoItem item = current.get(itemId);
+            if (item == null || item.isCompleted() || !sameDueDate(item.getDueDate(), reminder.dueDate())
+                    || !item.getUser().getId().equals(reminder.userId())) {
+                continue; // Stale: deleted, completed or rescheduled by a change that didn't name the item
+            }
+            logger.debug("{} for to-do item {} of user {}, due {}", reminder.kind(), itemId, reminder.userId(), reminder.dueDate());
+            eventPublisher.publishEvent(new TodoItemDueEvent(reminder.userId(), itemId, item.getDescription(),
+                    reminder.dueDate(), reminder.kind()));
+            meterRegistry.counter("reminders.fired", "kind", reminder.kind().name()).increment();
+            if (reminder.kind() == TodoItemDueEvent.Kind.REMINDER) {
+                synchronized (this) {
+                    if (wheel.get(itemId) == null) { // Not rescheduled by an edit in the meantime
+                        wheel.schedule(itemId, new Reminder(reminder.userId(), reminder.dueDate(), TodoItemDueEvent.Kind.OVERDUE),
+                                toEpochMillis(reminder.dueDate()));
+                    }
+                }
+            }
+        }
+    }
+
+    // Events carry the due date as set in memory; the column may have stored it truncated or rounded to the second
+    private static boolean sameDueDate(LocalDateTime stored, LocalDateTime scheduled) {
+        return stored != null && Duration.between(stored, scheduled).abs().compareTo(Duration.ofSeconds(1)) < 0;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,51 @@
+package com.alma.todolistapplication.repository;
+
+import com.alma.todolistapplication.model.ArchivedTodoItem;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTodoItemRepository extends JpaRepository<ArchivedTodoItem, Long> {
+
+    // --- Keyset pagination, same order and cursor as the live list (see TodoItemRepository) ---
+    List<ArchivedTodoItem> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedTodoItem a WHERE a.user.id = :userId " +
+            "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<ArchivedTodoItem> findPageAfterCursor(Long userId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // --- Moving rows between the tables: INSERT ... SELECT, so item data never makes a round trip ---
+    // Callers lock the source rows first (TodoItemRepository.findArchivable, findByUserIdAndIdInForUpdate below)
+    @Modifying
+    @Query(value = "INSERT INTO archived_todo_items (id, user_id, description, created_at, completed_at, due_date, version, archived_at) " +
+            "SELECT id, user_id, description, created_at, completed_at, due_date, version, :archivedAt " +
+            "FROM todo_items WHERE id IN :ids",
+            nativeQuery = true)
+    int copyFromTodoItems(Collection<Long> ids, LocalDateTime archivedAt);
+
+    // Archived items were all completed, so they come back completed
+    @Modifying
+    @Query(value = "INSERT INTO todo_items (id, user_id, description, completed, created_at, completed_at, due_date, version) " +
+            "SELECT id, user_id, description, TRUE, created_at, completed_at, due_date, version + 1 " +
+            "FROM archived_todo_items WHERE id IN :ids",
+            nativeQuery = true)
+    int copyToTodoItems(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ArchivedTodoItem a WHERE a.user.id = :userId AND a.id IN :ids")
+    List<ArchivedTodoItem> findByUserIdAndIdInForUpdate(Long userId, Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ArchivedTodoItem a WHERE a.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.alma.todolistapplication.repository;
+
+import com.alma.todolistapplication.model.BulkJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, Long> {
+
+    Optional<BulkJob> findByIdAndUserId(Long id, Long userId);
+
+    Optional<BulkJob> findFirstByUserIdAndTypeAndStatusIn(Long userId, BulkJob.Type type, Collection<BulkJob.Status> statuses);
+
+    // Held for the whole chunk, so two workers (or nodes) that pick up the same job take turns instead of overlapping
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM BulkJob j WHERE j.id = :id")
+    Optional<BulkJob> findByIdForUpdate(Long id);
+
+    // Unfinished jobs nobody has advanced lately: their node stopped, or they never got started
+    @Query("SELECT j.id FROM BulkJob j WHERE j.status IN :statuses AND j.updatedAt < :updatedBefore ORDER BY j.id")
+    List<Long> findIdsByStatusInAndUpdatedAtBefore(Collection<BulkJob.Status> statuses, LocalDateTime updatedBefore);
+}
@@ -1,15 +1,27 @@
 package com.alma.todolistapplication.repository;
 
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoItemDto;
 import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.reminder.PendingReminder;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime; // Import if used in method signatures like findByUserIdAndDueDateBetween
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
@@ -33,6 +45,44 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     // Example with dueDate filtering and pagination:
     // Page<TodoItem> findByUserIdAndDueDateBefore(Long userId, LocalDateTime dateTime, Pageable pageable);
 
+    // --- Keyset (cursor) pagination ---
+    // Unlike the Page<> finders above these never use OFFSET: each page seeks on (user_id, created_at, id),
+    // so loading page 500 costs the same as loading page 1. Always pass PageRequest.of(0, size): the Pageable only sets the LIMIT.
+    // First page, newest first (id breaks ties between items created in the same instant)
+    List<TodoItem> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+    // Pages after the cursor (createdAt, id) of the last item the client has seen
+    @Query("SELECT t FROM TodoItem t WHERE t.user.id = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoItem> findPageAfterCursor(Long userId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // --- Due-date reminders (see ReminderScheduler) ---
+    // Streamed so loading hundreds of thousands of reminders never holds them all as entities; needs a transaction
+    // (and useCursorFetch=true on MySQL, or the driver buffers the whole result anyway)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.alma.todolistapplication.reminder.PendingReminder(t.id, t.user.id, t.dueDate) FROM TodoItem t " +
+            "WHERE t.completed = false AND t.dueDate > :from AND t.dueDate <= :to")
+    Stream<PendingReminder> streamPendingReminders(LocalDateTime from, LocalDateTime to);
+
+    // --- Export (see TodoTransferService) ---
+    // A chunk's keys, then its items. The keys are read from (user_id, created_at, id) alone: fetching whole rows,
+    // MySQL and MariaDB switch to scanning the user's items from the newest once the cursor is past the middle
+    @Query("SELECT new com.alma.todolistapplication.dto.TodoCursor(t.createdAt, t.id) FROM TodoItem t " +
+            "WHERE t.user.id = :userId ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoCursor> findExportKeys(Long userId, Pageable pageable);
+    @Query("SELECT new com.alma.todolistapplication.dto.TodoCursor(t.createdAt, t.id) FROM TodoItem t WHERE t.user.id = :userId " +
+            "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoCursor> findExportKeysAfter(Long userId, LocalDateTime createdAt, Long id, Pageable pageable);
+    // Read straight into DTOs so nothing piles up in the persistence context
+    @Query("SELECT new com.alma.todolistapplication.dto.TodoItemDto(t.id, t.description, t.completed, t.createdAt, t.completedAt, t.dueDate) " +
+            "FROM TodoItem t WHERE t.user.id = :userId AND t.id IN :ids ORDER BY t.createdAt DESC, t.id DESC")
+    List<TodoItemDto> findExportItems(Long userId, Collection<Long> ids);
+
+    @Query("SELECT new com.alma.todolistapplication.reminder.PendingReminder(t.id, t.user.id, t.dueDate) FROM TodoItem t " +
+            "WHERE t.user.id = :userId AND t.id IN :ids AND t.completed = false AND t.dueDate IS NOT NULL")
+    List<PendingReminder> findPendingRemindersForUser(Long userId, Collection<Long> ids);
+
     // --- Counting ---
     long countByUserId(Long userId);
     long countByUserIdAndCompleted(Long userId, boolean completed);
@@ -42,6 +92,16 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     List<TodoItem> findByUserIdAndDescriptionContainingIgnoreCaseOrderByCreatedAtDesc(Long userId, String keyword);
     // Find by description containing a keyword for a specific user, ignoring case, with pagination
     Page<TodoItem> findByUserIdAndDescriptionContainingIgnoreCase(Long userId, String keyword, Pageable pageable);
+    // Slice variants fetch one extra row to know whether there is a next page, instead of running a COUNT
+    // Full-text search (MySQL only, uses the index created by FullTextIndexInitializer); :query is a boolean-mode
+    // expression built by TodoSearchServiceImpl. Best match first, newest first among equal scores.
+    @Query(value = "SELECT * FROM todo_items t WHERE t.user_id = :userId " +
+            "AND MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(t.description) AGAINST (:query IN BOOLEAN MODE) DESC, t.id DESC",
+            nativeQuery = true)
+    Slice<TodoItem> searchFullText(Long userId, String query, Pageable pageable);
+    // LIKE '%keyword%' fallback: can't use an index, so it reads every item of the user
+    Slice<TodoItem> findByUserIdAndDescriptionContainingIgnoreCaseOrderByCreatedAtDescIdDesc(Long userId, String keyword, Pageable pageable);
 
 
     // --- Date-based queries ---
@@ -55,16 +115,80 @@ public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
     List<TodoItem> findByUserIdAndDueDateBeforeAndCompletedIsFalse(Long userId, LocalDateTime currentDateTime);
 
 
-    // --- Bulk operations ---
-    // Mark all tasks for a user as completed
+    // --- Whole-list operations, one id range per transaction (see BulkJobService) ---
+    // Upper bound for a job: items created after it started are left alone
+    @Query("SELECT MAX(t.id) FROM TodoItem t WHERE t.user.id = :userId")
+    Optional<Long> findMaxIdByUserId(Long userId);
+
+    // The next chunk's ids, in id order: the last one is where the chunk's range ends. Locked, so the range
+    // statement that follows changes exactly these rows and events can name them.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.id FROM TodoItem t WHERE t.user.id = :userId AND t.completed = :completed " +
+            "AND t.id > :afterId AND t.id <= :maxId ORDER BY t.id")
+    List<Long> findIdsInRangeForUser(Long userId, boolean completed, Long afterId, Long maxId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TodoItem t SET t.completed = true, t.completedAt = :now, t.version = t.version + 1 " +
+            "WHERE t.user.id = :userId AND t.completed = false AND t.id > :afterId AND t.id <= :upToId")
+    int markCompletedInRangeForUser(Long userId, Long afterId, Long upToId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM TodoItem t WHERE t.user.id = :userId AND t.completed = true AND t.id > :afterId AND t.id <= :upToId")
+    int deleteCompletedInRangeForUser(Long userId, Long afterId, Long upToId);
+
+    // --- Single-item writes: one statement each, with the owner in the WHERE clause ---
+    // 0 rows means the item is missing, someone else's or (for the desired-state variants) already in that
+    // state; only then does the service look at findOwnerIdById to tell which.
+    @Query("SELECT t.user.id FROM TodoItem t WHERE t.id = :id")
+    Optional<Long> findOwnerIdById(Long id);
+
     @Modifying
-    @Query("UPDATE TodoItem t SET t.completed = true, t.completedAt = CURRENT_TIMESTAMP WHERE t.user.id = :userId AND t.completed = false")
-    int markAllAsCompletedForUser(Long userId);
+    @Query("UPDATE TodoItem t SET t.completed = :completed, t.completedAt = :completedAt, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId AND t.completed <> :completed")
+    int updateCompletedByIdForUser(Long id, Long userId, boolean completed, LocalDateTime completedAt);
+
+    // completedAt first: MySQL evaluates SET clauses left to right (see toggleCompletedForUser below)
+    @Modifying
+    @Query("UPDATE TodoItem t SET " +
+            "t.completedAt = CASE WHEN t.completed = false THEN :now ELSE NULL END, " +
+            "t.completed = CASE WHEN t.completed = false THEN true ELSE false END, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.user.id = :userId")
+    int toggleCompletedByIdForUser(Long id, Long userId, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM TodoItem t WHERE t.id = :id AND t.user.id = :userId AND t.completed = :completed")
+    int deleteByIdForUserAndCompleted(Long id, Long userId, boolean completed);
+
+    // --- Multi-item operations (ids not owned by the user are ignored) ---
+    List<TodoItem> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // The completion state of the user's items among the ids, locked so it is still theirs when the toggle runs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t.completed FROM TodoItem t WHERE t.user.id = :userId AND t.id IN :ids")
+    List<Boolean> findCompletedByUserIdAndIdInForUpdate(Long userId, Collection<Long> ids);
+
+    // Flips every listed item in one statement. completedAt is assigned first because MySQL evaluates
+    // SET clauses left to right, so it must still see the old value of completed.
+    @Modifying
+    @Query("UPDATE TodoItem t SET " +
+            "t.completedAt = CASE WHEN t.completed = false THEN :now ELSE NULL END, " +
+            "t.completed = CASE WHEN t.completed = false THEN true ELSE false END, t.version = t.version + 1 " +
+            "WHERE t.user.id = :userId AND t.id IN :ids")
+    int toggleCompletedForUser(Long userId, Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM TodoItem t WHERE t.user.id = :userId AND t.id IN :ids AND t.completed = :completed")
+    int deleteByUserIdAndIdInAndCompleted(Long userId, Collection<Long> ids, boolean completed);
+
+    // --- Archival (see TodoArchiveService) ---
+    // Oldest completions first, locked so a concurrent toggle or delete waits until the batch has moved
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TodoItem t WHERE t.completed = true AND t.completedAt < :cutoff ORDER BY t.completedAt")
+    List<TodoItem> findArchivable(LocalDateTime cutoff, Pageable pageable);
 
-    // Delete all completed tasks for a user
     @Modifying
-    @Query("DELETE FROM TodoItem t WHERE t.user.id = :userId AND t.completed = true")
-    int deleteAllCompletedForUser(Long userId);
+    @Query("DELETE FROM TodoItem t WHERE t.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 
     // Delete all tasks for a specific user (use with extreme caution - JpaRepository.deleteAllByUserId could also work if User entity is correctly mapped)
     // This is redundant if cascade delete is set up on the User entity's OneToMany relationship to TodoItem.
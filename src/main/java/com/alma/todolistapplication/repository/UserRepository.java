@@ -1,12 +1,17 @@
 package com.alma.todolistapplication.repository;
 
 import com.alma.todolistapplication.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -31,6 +36,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // --- List Finders (less common for User, but possible) ---
     List<User> findByEnabled(boolean enabled); // Find all enabled/disabled users
 
+    // Keyset walk over user ids for background jobs; pass PageRequest.of(0, batchSize)
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    // Forward-only passes over every taken username and email, for the availability index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username FROM User u")
+    Stream<String> streamUsernames();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamEmails();
+
     // --- Counting (if you add roles or other criteria later) ---
     // Example: if you add a Roles enum to your User entity
     // long countByRole(Roles role);
@@ -0,0 +1,37 @@
+package com.alma.todolistapplication.repository;
+
+import com.alma.todolistapplication.model.UserTaskStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserTaskStatsRepository extends JpaRepository<UserTaskStats, Long> {
+
+    // Relative update so concurrent mutations for the same user never lose each other's deltas.
+    // Always bumps the list version. Returns 0 if the user has no stats row yet.
+    @Modifying
+    @Query("UPDATE UserTaskStats s SET s.totalCount = s.totalCount + :totalDelta, " +
+            "s.completedCount = s.completedCount + :completedDelta, s.listVersion = s.listVersion + 1 " +
+            "WHERE s.userId = :userId")
+    int applyDelta(Long userId, long totalDelta, long completedDelta);
+
+    @Query("SELECT s.listVersion FROM UserTaskStats s WHERE s.userId = :userId")
+    Optional<Long> findListVersionByUserId(Long userId);
+
+    // Creates the user's row at zero unless there is one; a concurrent transaction creating it first is not an error
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_task_stats (user_id, total_count, completed_count, list_version) " +
+            "VALUES (:userId, 0, 0, 0)", nativeQuery = true)
+    int insertIfAbsent(Long userId);
+
+    // Row lock used by reconciliation: concurrent deltas wait until the recount has been written
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserTaskStats s WHERE s.userId = :userId")
+    Optional<UserTaskStats> findByUserIdForUpdate(Long userId);
+}
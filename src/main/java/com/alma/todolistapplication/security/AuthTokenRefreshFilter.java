@@ -0,0 +1,30 @@
+package com.alma.todolistapplication.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rotates the stateless login cookie when it is near expiry. Runs after authorization, i.e. once
+ * the request's token has been verified, and before the response is committed.
+ * Registered only in the security filter chain, never as a servlet filter of its own.
+ */
+public class AuthTokenRefreshFilter extends OncePerRequestFilter {
+
+    private final TokenCookieSecurityContextRepository repository;
+
+    public AuthTokenRefreshFilter(TokenCookieSecurityContextRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        repository.refreshIfNeeded(request, response);
+        filterChain.doFilter(request, response);
+    }
+}
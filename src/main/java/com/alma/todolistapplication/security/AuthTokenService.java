@@ -0,0 +1,149 @@
+package com.alma.todolistapplication.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed login tokens:
+ * {@code base64url(userId|issuedAt|expiresAt|username) "." base64url(signature)}.
+ * Verification is purely local - no session store, no database - so any node holding the
+ * shared secret can authenticate any request. {@link #seal} and {@link #unseal} sign other
+ * short-lived values the client carries between nodes the same way (see {@link RecentWriteCookie}).
+ */
+@Component
+public class AuthTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record TokenClaims(Long userId, String username, Instant issuedAt, Instant expiresAt) {
+    }
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration refreshWindow;
+    private final Clock clock;
+    // Mac instances aren't thread-safe; one per thread avoids both locking and re-initialising the key
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public AuthTokenService(@Value("${app.security.token.secret:}") String secret,
+                            @Value("${app.security.token.ttl:8h}") Duration ttl,
+                            @Value("${app.security.token.refresh-window:1h}") Duration refreshWindow) {
+        this(secret, ttl, refreshWindow, Clock.systemUTC());
+    }
+
+    AuthTokenService(String secret, Duration ttl, Duration refreshWindow, Clock clock) {
+        this.key = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.ttl = ttl;
+        this.refreshWindow = refreshWindow;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(AuthenticatedUser user) {
+        Instant now = clock.instant();
+        return seal(user.getId() + "|" + now.getEpochSecond() + "|" + now.plus(ttl).getEpochSecond()
+                + "|" + user.getUsername()); // Username last: it is the only field that may contain '|'
+    }
+
+    // Empty for anything malformed, forged or expired
+    public Optional<TokenClaims> verify(String token) {
+        return unseal(token).flatMap(payload -> {
+            String[] fields = payload.split("\\|", 4);
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+            try {
+                TokenClaims claims = new TokenClaims(Long.valueOf(fields[0]), fields[3],
+                        Instant.ofEpochSecond(Long.parseLong(fields[1])), Instant.ofEpochSecond(Long.parseLong(fields[2])));
+                return clock.instant().isBefore(claims.expiresAt()) ? Optional.of(claims) : Optional.empty();
+            } catch (IllegalArgumentException e) { // Bad numbers
+                return Optional.empty();
+            }
+        });
+    }
+
+    // payload "." signature, both base64url. Callers give their payloads distinct shapes, so one kind never passes for another.
+    public String seal(String payload) {
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    // The payload, if the signature is ours; empty for anything malformed or forged
+    public Optional<String> unseal(String sealed) {
+        if (sealed == null) {
+            return Optional.empty();
+        }
+        int dot = sealed.indexOf('.');
+        if (dot < 1 || dot == sealed.length() - 1) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(sealed.substring(0, dot));
+            byte[] signature = DECODER.decode(sealed.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) { // Constant-time comparison
+                return Optional.empty();
+            }
+            return Optional.of(new String(payloadBytes, StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) { // Bad base64
+            return Optional.empty();
+        }
+    }
+
+    public boolean needsRefresh(TokenClaims claims) {
+        return clock.instant().isAfter(claims.expiresAt().minus(refreshWindow));
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            // Fine for one node in development; every node behind a load balancer must share the same secret
+            logger.warn("app.security.token.secret is not set, using a random key: tokens won't survive a restart " +
+                    "and other nodes won't accept them");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] decoded = Base64.getDecoder().decode(secret.trim());
+        if (decoded.length < 32) {
+            throw new IllegalStateException("app.security.token.secret must be at least 256 bits (base64-encoded)");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,96 @@
+package com.alma.todolistapplication.security;
+
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The principal stored in the security context (and therefore the HTTP session) after login.
+ * Carries only what request handling needs - the user id, username and authorities - instead of
+ * the JPA {@link com.alma.todolistapplication.model.User} entity with its lazy collections.
+ * The password hash is only present during authentication and is erased right after.
+ */
+public final class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // For this simple app every user has just "ROLE_USER"; one shared instance keeps sessions small
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long id;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final boolean enabled;
+    private String password; // Cleared by eraseCredentials() once the login has been checked
+
+    public AuthenticatedUser(Long id, String username, String password, boolean enabled,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.username = Objects.requireNonNull(username, "username");
+        this.password = password;
+        this.enabled = enabled;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser of(UserCredentials credentials) {
+        return new AuthenticatedUser(credentials.id(), credentials.username(), credentials.passwordHash(),
+                credentials.enabled(), USER_AUTHORITIES);
+    }
+
+    // Principal rebuilt from a verified stateless login token: no password, always enabled
+    public static AuthenticatedUser of(Long id, String username) {
+        return new AuthenticatedUser(id, username, null, true, USER_AUTHORITIES);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    // Identity is the user id, so a principal stays equal to itself across logins and session restores
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof AuthenticatedUser other && id.equals(other.id));
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + "]"; // Never the password
+    }
+}
@@ -0,0 +1,136 @@
+package com.alma.todolistapplication.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs another encoder's hashing (BCrypt's, deliberately slow) on a few threads of its own, so a
+ * burst of logins uses at most {@code threads} cores however many requests carry a password; the
+ * rest of the CPU stays with to-do traffic.
+ * <p>
+ * Up to {@code queueCapacity} more hashes wait for a thread, and a caller waits at most
+ * {@code maxWait} for its result. Beyond that it gets a {@link PasswordHashingBusyException} (a 429)
+ * rather than holding its request thread in an ever longer queue. Under load hashes run slower than
+ * on an idle machine, so a hash is also turned away up front when the queue ahead of it, at the
+ * recent time per hash, would take longer than {@code maxWait}: it would only be computed for a
+ * caller that had already given up. A request that gives up while queued takes its hash out.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxWaitNanos;
+    private final AtomicLong averageHashNanos = new AtomicLong(); // Moving average over roughly the last 8 hashes
+    private final AtomicLong rejected = new AtomicLong();
+    private final Timer waitTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.maxWaitNanos = maxWait.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.waitTimer = Timer.builder("app.security.password-hashing.wait")
+                .description("Time a password hash waited for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("app.security.password-hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes being computed")
+                .register(meterRegistry);
+        Gauge.builder("app.security.password-hashing.queued", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        FunctionCounter.builder("app.security.password-hashing.rejected", rejected, AtomicLong::get)
+                .description("Password hashes refused because the hashing threads were saturated (429)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        // With nothing queued it is always let in, which is also how a stale (slow) average gets corrected
+        int ahead = executor.getQueue().size();
+        if (ahead > 0 && (ahead / threads + 1) * averageHashNanos.get() > maxWaitNanos) {
+            throw busy();
+        }
+        long queued = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                waitTimer.record(started - queued, TimeUnit.NANOSECONDS);
+                try {
+                    return hash.call();
+                } finally {
+                    long took = System.nanoTime() - started;
+                    averageHashNanos.getAndUpdate(average -> average == 0 ? took : average + (took - average) / 8);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Still queued: taken out of the queue. Already hashing: finishes, unused
+            result.cancel(false);
+            executor.remove((Runnable) result);
+            throw busy();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            executor.remove((Runnable) result);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for a password hash");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PasswordHashingBusyException busy() {
+        rejected.incrementAndGet();
+        return new PasswordHashingBusyException("Too many password checks in progress, try again shortly");
+    }
+}
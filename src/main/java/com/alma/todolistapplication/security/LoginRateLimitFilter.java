@@ -0,0 +1,81 @@
+package com.alma.todolistapplication.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Asks {@link LoginRateLimiter} before a password is hashed: form logins ({@code POST /perform_login}),
+ * registrations ({@code POST /perform-register}) and requests with HTTP Basic credentials; and before
+ * an availability check ({@code /api/availability}) is answered. Over the limit they get a 429 with
+ * Retry-After straight away. Sits in front of the filter that would check
+ * the password; the client is identified by {@code getRemoteAddr()}, so behind a proxy set
+ * {@code server.forward-headers-strategy} for it to be the client's address.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BASIC = "Basic ";
+
+    private final LoginRateLimiter rateLimiter;
+
+    public LoginRateLimitFilter(LoginRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration wait = Duration.ZERO;
+        String ip = request.getRemoteAddr();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+            wait = rateLimiter.checkLogin(ip, basicUsername(authorization));
+        } else if ("POST".equals(request.getMethod())) {
+            if (path.equals("/perform_login")) {
+                wait = rateLimiter.checkLogin(ip, request.getParameter("username"));
+            } else if (path.equals("/perform-register")) {
+                wait = rateLimiter.checkRegistration(ip);
+            }
+        }
+        // Charged whatever the credentials, so signing in doesn't lift the limit
+        if (wait.isZero() && path.equals("/api/availability")) {
+            wait = rateLimiter.checkAvailability(ip);
+        }
+        if (!wait.isZero()) {
+            sendTooManyRequests(response, wait, "Too many attempts, please try again later.");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static void sendTooManyRequests(HttpServletResponse response, Duration wait, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, wait.plusMillis(999).toSeconds())));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    // The username half of "Basic base64(username:password)", or null if it doesn't decode
+    private static String basicUsername(String authorization) {
+        try {
+            String credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC.length()).trim()),
+                    StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon < 0 ? null : credentials.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.alma.todolistapplication.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limits password guessing per client IP and per username, so a credential-stuffing run can't keep
+ * the password hash busy (see {@link LoginRateLimitFilter}, which asks before anything is hashed).
+ * <p>
+ * A failed login costs a token from the IP's bucket and from the username's; a successful one costs
+ * nothing, so people who type their password right are never throttled, however many of them share
+ * an address. A registration costs a token from the IP's bucket up front, since it always hashes.
+ * A login turned away because password hashing is saturated costs the IP a token too: when hashes
+ * back up, few guesses get far enough to fail, and the flood itself has to empty the bucket.
+ * Once either bucket is empty, attempts are answered 429 until it refills.
+ * <p>
+ * Availability checks ({@code GET /api/availability}) need no password but answer the question a
+ * registration would, whether an account uses a username or email, so they cost the IP a token from
+ * a bucket of their own: roomier, since the registration form asks as it is typed in, but enough
+ * to stop anyone walking a list of addresses through it.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final boolean enabled;
+    private final TokenBuckets byIp;
+    private final TokenBuckets byUsername;
+    private final TokenBuckets availabilityByIp;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedAvailability;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${app.security.rate-limit.ip.capacity:20}") long ipCapacity,
+                            @Value("${app.security.rate-limit.ip.refill-period:1m}") Duration ipRefillPeriod,
+                            @Value("${app.security.rate-limit.username.capacity:5}") long usernameCapacity,
+                            @Value("${app.security.rate-limit.username.refill-period:5m}") Duration usernameRefillPeriod,
+                            @Value("${app.security.rate-limit.availability.capacity:60}") long availabilityCapacity,
+                            @Value("${app.security.rate-limit.availability.refill-period:1m}") Duration availabilityRefillPeriod,
+                            @Value("${app.security.rate-limit.max-keys:100000}") long maxKeys,
+                            MeterRegistry meterRegistry) {
+        this(enabled, new TokenBuckets(ipCapacity, ipRefillPeriod, maxKeys),
+                new TokenBuckets(usernameCapacity, usernameRefillPeriod, maxKeys),
+                new TokenBuckets(availabilityCapacity, availabilityRefillPeriod, maxKeys), meterRegistry);
+    }
+
+    LoginRateLimiter(boolean enabled, TokenBuckets byIp, TokenBuckets byUsername, TokenBuckets availabilityByIp,
+                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.byIp = byIp;
+        this.byUsername = byUsername;
+        this.availabilityByIp = availabilityByIp;
+        this.rejectedByIp = rejectedCounter(meterRegistry, "ip");
+        this.rejectedByUsername = rejectedCounter(meterRegistry, "username");
+        this.rejectedAvailability = rejectedCounter(meterRegistry, "availability");
+        Gauge.builder("app.security.rate-limit.buckets", byIp, TokenBuckets::size)
+                .description("Clients with a partly used rate-limit bucket").tag("key", "ip").register(meterRegistry);
+        Gauge.builder("app.security.rate-limit.buckets", byUsername, TokenBuckets::size)
+                .description("Clients with a partly used rate-limit bucket").tag("key", "username").register(meterRegistry);
+        Gauge.builder("app.security.rate-limit.buckets", availabilityByIp, TokenBuckets::size)
+                .description("Clients with a partly used rate-limit bucket").tag("key", "availability").register(meterRegistry);
+    }
+
+    /**
+     * How long a login from {@code ip} as {@code username} (null when not known yet) has to wait:
+     * zero if it may go ahead.
+     */
+    public Duration checkLogin(String ip, String username) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        Duration wait = byIp.waitTime(ip);
+        if (!wait.isZero()) {
+            rejectedByIp.increment();
+            return wait;
+        }
+        if (username != null) {
+            wait = byUsername.waitTime(usernameKey(username));
+            if (!wait.isZero()) {
+                rejectedByUsername.increment();
+            }
+        }
+        return wait;
+    }
+
+    /**
+     * Charges a registration from {@code ip}: zero if it may go ahead, else how long to wait.
+     */
+    public Duration checkRegistration(String ip) {
+        if (!enabled || byIp.tryTake(ip)) {
+            return Duration.ZERO;
+        }
+        rejectedByIp.increment();
+        return byIp.waitTime(ip);
+    }
+
+    /**
+     * Charges an availability check from {@code ip}: zero if it may go ahead, else how long to wait.
+     */
+    public Duration checkAvailability(String ip) {
+        if (!enabled || availabilityByIp.tryTake(ip)) {
+            return Duration.ZERO;
+        }
+        rejectedAvailability.increment();
+        return availabilityByIp.waitTime(ip);
+    }
+
+    public void loginFailed(String ip, String username) {
+        if (!enabled) {
+            return;
+        }
+        if (ip != null) {
+            byIp.take(ip);
+        }
+        if (username != null) {
+            byUsername.take(usernameKey(username));
+        }
+    }
+
+    /**
+     * Charges a login from {@code ip} that was answered 429 because password hashing was saturated.
+     */
+    public void loginTurnedAway(String ip) {
+        if (enabled && ip != null) {
+            byIp.take(ip);
+        }
+    }
+
+    // Form login and HTTP Basic both record the client's address in the authentication details
+    @EventListener
+    public void onBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
+        String ip = event.getAuthentication().getDetails() instanceof WebAuthenticationDetails details
+                ? details.getRemoteAddress() : null;
+        if (ip == null) {
+            logger.debug("Failed login for {} without a client address, charged to the username only",
+                    event.getAuthentication().getName());
+        }
+        loginFailed(ip, event.getAuthentication().getName());
+    }
+
+    // Usernames are unique regardless of case (the column's collation), and so are their buckets
+    private static String usernameKey(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("app.security.rate-limit.rejected")
+                .description("Logins, registrations and availability checks answered 429 by the rate limiter")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.alma.todolistapplication.security;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Every password-hashing thread is busy and the queue in front of them is full, or the wait
+ * for one ran out (see {@link BoundedPasswordEncoder}). Answered 429; nothing was checked.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    // Hashes take tens of milliseconds each, so a saturated pool has room again within a second
+    public void sendTo(HttpServletResponse response) throws IOException {
+        LoginRateLimitFilter.sendTooManyRequests(response, Duration.ofSeconds(1), "The service is busy, please try again shortly.");
+    }
+}
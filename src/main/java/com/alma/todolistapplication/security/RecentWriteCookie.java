@@ -0,0 +1,102 @@
+package com.alma.todolistapplication.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-your-writes that doesn't depend on which node serves the next request: once a user's write
+ * commits, the response carries a signed {@code WROTE_AT} cookie naming the user and when the
+ * stickiness ends, and any node that sees it on that user's requests keeps their reads on the
+ * primary until then. Signed with the login token key ({@link AuthTokenService#seal}), which every
+ * node behind the load balancer has to share anyway for stateless sessions.
+ * <p>
+ * Only writes made while serving a request set it; changes made for the user in the background
+ * (bulk job chunks) are only remembered by the node that made them.
+ */
+public class RecentWriteCookie {
+
+    public static final String COOKIE_NAME = "WROTE_AT";
+
+    private static final String PREFIX = "wrote|"; // No login token payload starts like this, so neither passes for the other
+    private static final String ISSUED_ATTRIBUTE = RecentWriteCookie.class.getName() + ".ISSUED";
+
+    private final AuthTokenService tokenService;
+    private final Duration stickyFor;
+    private final Clock clock = Clock.systemUTC();
+
+    public RecentWriteCookie(AuthTokenService tokenService, Duration stickyFor) {
+        this.tokenService = tokenService;
+        this.stickyFor = stickyFor;
+    }
+
+    // Once per request, and only while headers can still be sent
+    public void issue(Long userId) {
+        currentRequest().ifPresent(attributes -> {
+            HttpServletRequest request = attributes.getRequest();
+            HttpServletResponse response = attributes.getResponse();
+            if (response == null || response.isCommitted() || request.getAttribute(ISSUED_ATTRIBUTE) != null) {
+                return;
+            }
+            request.setAttribute(ISSUED_ATTRIBUTE, Boolean.TRUE);
+            long until = clock.millis() + stickyFor.toMillis();
+            String path = StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/";
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, tokenService.seal(PREFIX + userId + "|" + until))
+                    .httpOnly(true)
+                    .secure(request.isSecure())
+                    .sameSite("Lax")
+                    .path(path)
+                    .maxAge(Duration.ofSeconds(Math.max(1, (stickyFor.toMillis() + 999) / 1000)))
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        });
+    }
+
+    // Whether the current request carries this user's unexpired cookie
+    public boolean isPresent(Long userId) {
+        return currentRequest()
+                .map(attributes -> readCookie(attributes.getRequest()))
+                .flatMap(tokenService::unseal)
+                .filter(payload -> payload.startsWith(PREFIX))
+                .map(payload -> payload.substring(PREFIX.length()).split("\\|"))
+                .filter(fields -> fields.length == 2 && fields[0].equals(String.valueOf(userId)))
+                .map(fields -> isBeforeEnd(fields[1]))
+                .orElse(false);
+    }
+
+    private boolean isBeforeEnd(String until) {
+        try {
+            return clock.millis() < Long.parseLong(until);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static Optional<ServletRequestAttributes> currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? Optional.of(servletAttributes) : Optional.empty();
+    }
+
+    private static String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName()) && StringUtils.hasText(cookie.getValue())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.alma.todolistapplication.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per key: {@code capacity} tokens, refilled one every {@code refillPeriod / capacity}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong}, the time at which it will be full again, and is read
+ * and updated with compare-and-set, so checks on the login path never lock. A bucket that hasn't
+ * been touched for a whole refill period is full and dropped from the map (Caffeine's
+ * expire-after-access); {@code maxKeys} bounds the map when keys are sprayed, at the cost of
+ * forgetting the least recently used buckets early.
+ */
+public class TokenBuckets {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long refillNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(long capacity, Duration refillPeriod, long maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    TokenBuckets(long capacity, Duration refillPeriod, long maxKeys, LongSupplier clock) {
+        if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("capacity and refill period must be positive: " + capacity + ", " + refillPeriod);
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.refillNanos = nanosPerToken * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * How long until {@code key} has a token again: zero when it has one now. Takes nothing.
+     */
+    public Duration waitTime(String key) {
+        AtomicLong fullAt = buckets.getIfPresent(key);
+        if (fullAt == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, fullAt.get() - clock.getAsLong() - (refillNanos - nanosPerToken)));
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket if it has one.
+     *
+     * @return whether there was a token to take
+     */
+    public boolean tryTake(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long from = current - now < 0 ? now : current; // A bucket can't be fuller than full
+            if (from - now > refillNanos - nanosPerToken) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, from + nanosPerToken)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket, or leaves it empty if it had none: for charging
+     * after the fact for something that was already allowed.
+     */
+    public void take(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long from = current - now < 0 ? now : current; // A bucket can't be fuller than full
+            if (fullAt.compareAndSet(current, Math.min(from + nanosPerToken, now + refillNanos))) {
+                return;
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    // Expired buckets are only removed as other keys are used; cleanUp forces it (for size(), and tests)
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
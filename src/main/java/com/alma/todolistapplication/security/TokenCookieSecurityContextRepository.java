@@ -0,0 +1,134 @@
+package com.alma.todolistapplication.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Stateless {@link SecurityContextRepository}: the authenticated user lives in a signed cookie
+ * (see {@link AuthTokenService}) instead of the {@code HttpSession}.
+ * <ul>
+ *     <li>load - verifies the cookie locally and rebuilds an {@link AuthenticatedUser}</li>
+ *     <li>save - called on login (issues the cookie) and on logout (clears it)</li>
+ *     <li>{@link #refreshIfNeeded} - re-issues a token that is close to expiry, so active users stay logged in</li>
+ * </ul>
+ * A logged-out token stays cryptographically valid until it expires; keep the TTL short.
+ */
+public class TokenCookieSecurityContextRepository implements SecurityContextRepository {
+
+    public static final String DEFAULT_COOKIE_NAME = "AUTH_TOKEN";
+
+    private static final String CLAIMS_ATTRIBUTE = TokenCookieSecurityContextRepository.class.getName() + ".CLAIMS";
+
+    private final AuthTokenService tokenService;
+    private final String cookieName;
+    private final SecurityContextHolderStrategy contextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    public TokenCookieSecurityContextRepository(AuthTokenService tokenService, String cookieName) {
+        this.tokenService = tokenService;
+        this.cookieName = cookieName;
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredSecurityContext() {
+            private SecurityContext context;
+            private boolean generated;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    Optional<SecurityContext> loaded = readContext(request);
+                    generated = loaded.isEmpty();
+                    context = loaded.orElseGet(contextHolderStrategy::createEmptyContext);
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                get();
+                return generated;
+            }
+        };
+    }
+
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            writeCookie(request, response, tokenService.issue(user), tokenService.getTtl());
+        } else if (containsContext(request)) {
+            writeCookie(request, response, "", Duration.ZERO); // Logout
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return readCookie(request) != null;
+    }
+
+    // Sliding expiry: only rewrites the cookie once the token is inside its refresh window
+    public void refreshIfNeeded(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(CLAIMS_ATTRIBUTE) instanceof AuthTokenService.TokenClaims claims
+                && tokenService.needsRefresh(claims)) {
+            String token = tokenService.issue(AuthenticatedUser.of(claims.userId(), claims.username()));
+            writeCookie(request, response, token, tokenService.getTtl());
+        }
+    }
+
+    private Optional<SecurityContext> readContext(HttpServletRequest request) {
+        return tokenService.verify(readCookie(request)).map(claims -> {
+            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+            AuthenticatedUser user = AuthenticatedUser.of(claims.userId(), claims.username());
+            SecurityContext context = contextHolderStrategy.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+            return context;
+        });
+    }
+
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName()) && StringUtils.hasText(cookie.getValue())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, Duration maxAge) {
+        String path = StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/";
+        ResponseCookie cookie = ResponseCookie.from(cookieName, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path(path)
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,46 @@
+package com.alma.todolistapplication.security;
+
+import com.alma.todolistapplication.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User} that drops cached credentials on every insert, update or delete,
+ * so registration and any future profile or password change can't leave a stale login behind.
+ * Eviction is repeated after commit to catch a login that reloaded the old row in the meantime.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private final UserCredentialsCache credentialsCache;
+
+    @Autowired
+    public UserCacheInvalidationListener(UserCredentialsCache credentialsCache) {
+        this.credentialsCache = credentialsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        evict(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(user);
+                }
+            });
+        }
+    }
+
+    private void evict(User user) {
+        credentialsCache.invalidate(user.getUsername());
+        credentialsCache.invalidateUserId(user.getId());
+    }
+}
@@ -0,0 +1,14 @@
+package com.alma.todolistapplication.security;
+
+import com.alma.todolistapplication.model.User;
+
+/**
+ * The slice of a {@link User} that authentication needs. Immutable and free of JPA state,
+ * so it can be cached and shared between threads.
+ */
+public record UserCredentials(Long id, String username, String passwordHash, boolean enabled) {
+
+    public static UserCredentials of(User user) {
+        return new UserCredentials(user.getId(), user.getUsername(), user.getPassword(), user.isEnabled());
+    }
+}
@@ -0,0 +1,68 @@
+package com.alma.todolistapplication.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based cache of {@link UserCredentials} by username, so a login storm doesn't
+ * send one {@code findByUsername} per attempt to MySQL. Unknown usernames are not cached.
+ * Entries are invalidated whenever a user row changes (see {@link UserCacheInvalidationListener});
+ * the TTL bounds staleness for changes made outside the application.
+ */
+@Component
+public class UserCredentialsCache {
+
+    public static final String CACHE_NAME = "userCredentials";
+
+    private final boolean enabled;
+    private final Cache<String, UserCredentials> cache;
+
+    @Autowired
+    public UserCredentialsCache(@Value("${app.security.credentials-cache.enabled:true}") boolean enabled,
+                                @Value("${app.security.credentials-cache.max-size:10000}") long maxSize,
+                                @Value("${app.security.credentials-cache.ttl:5m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<UserCredentials> get(String username, Function<String, Optional<UserCredentials>> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        UserCredentials cached = cache.getIfPresent(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<UserCredentials> loaded = loader.apply(username);
+        loaded.ifPresent(credentials -> cache.put(username, credentials));
+        return loaded;
+    }
+
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    // Also catches a renamed user, whose entry is still keyed by the old username
+    public void invalidateUserId(Long userId) {
+        if (userId != null) {
+            cache.asMap().values().removeIf(credentials -> userId.equals(credentials.id()));
+        }
+    }
+}
@@ -1,29 +1,40 @@
 package com.alma.todolistapplication.security;
 
+import com.alma.todolistapplication.config.ReadWriteRoutingDataSource;
 import com.alma.todolistapplication.model.User;
 import com.alma.todolistapplication.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+
 @Service("userDetailsService") // Giving it a specific bean name
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCredentialsCache credentialsCache;
+    private final boolean replicaReads;
 
     @Autowired
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserCredentialsCache credentialsCache,
+                                  @Value("${app.datasource.replica.enabled:false}") boolean replicaReads) {
         this.userRepository = userRepository;
+        this.credentialsCache = credentialsCache;
+        this.replicaReads = replicaReads;
     }
 
     @Override
-    @Transactional(readOnly = true) // Good practice for read-only operations
+    // No transaction of its own: a cache hit shouldn't borrow a connection, and a miss runs findByUsername read-only
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Our User entity already implements UserDetails, so we can return it directly
-        User user = userRepository.findByUsername(username)
+        UserCredentials credentials = credentialsCache
+                .get(username, name -> findByUsername(name).map(UserCredentials::of))
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with username: " + username));
 
@@ -32,6 +43,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         // .orElseThrow(() ->
         // new UsernameNotFoundException("User not found with username or email: " + username));
 
+        // A new principal per login: Spring Security erases its password after the check
+        return AuthenticatedUser.of(credentials);
+    }
+
+    // Not on the read replica yet (registered a moment ago)? Ask the primary before failing the login
+    private Optional<User> findByUsername(String username) {
+        Optional<User> user = userRepository.findByUsername(username);
+        if (user.isEmpty() && replicaReads) {
+            return ReadWriteRoutingDataSource.usingPrimary(() -> userRepository.findByUsername(username));
+        }
         return user;
     }
-}
\ No newline at end of file
+}
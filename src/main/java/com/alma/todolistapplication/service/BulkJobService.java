@@ -0,0 +1,28 @@
+package com.alma.todolistapplication.service;
+
+import com.alma.todolistapplication.model.BulkJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Whole-list operations as resumable jobs: each chunk of {@code app.bulk-jobs.chunk-size} items is
+ * its own transaction, so a user with 100k items never has them all locked at once, and their other
+ * writes slip in between chunks. {@link com.alma.todolistapplication.job.BulkJobRunner} drives them.
+ */
+public interface BulkJobService {
+
+    // Records the job; a job of the same type still unfinished for the user is returned instead of a second one
+    BulkJob submit(Long userId, BulkJob.Type type);
+
+    Optional<BulkJob> getJobForUser(Long jobId, Long userId);
+
+    // Handles the next chunk and returns the job as it stands after it (finished once nothing is left)
+    BulkJob processNextChunk(Long jobId);
+
+    void markFailed(Long jobId, String error);
+
+    // Unfinished jobs not advanced since the given time, e.g. because the node running them stopped
+    List<Long> findStalledJobIds(LocalDateTime notUpdatedSince);
+}
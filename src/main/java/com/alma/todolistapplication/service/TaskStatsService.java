@@ -0,0 +1,26 @@
+package com.alma.todolistapplication.service;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
+
+import java.util.Optional;
+
+public interface TaskStatsService {
+
+    TaskCounts getCountsForUser(Long userId);
+
+    // Current list version, empty if the user has no stats row yet
+    Optional<Long> getListVersion(Long userId);
+
+    // Counts and list version from the same read of the stats row
+    VersionedTaskCounts getVersionedCountsForUser(Long userId);
+
+    // Called in the same transaction as every to-do mutation. Bumps the list version and returns the new one, which
+    // stays this change's own until commit (the row is locked)
+    long recordChange(Long userId, long totalDelta, long completedDelta);
+
+    void initializeForUser(Long userId); // Zeroed row for a freshly registered user
+
+    // Recounts the user's items and fixes the stats row; returns true if it had drifted or was missing
+    boolean reconcileUser(Long userId);
+}
@@ -0,0 +1,20 @@
+package com.alma.todolistapplication.service;
+
+import com.alma.todolistapplication.dto.ArchivedTodoItemPage;
+import com.alma.todolistapplication.dto.TodoCursor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Cold storage for long-completed items; the live list, counters and search only ever see todo_items
+public interface TodoArchiveService {
+
+    // Moves up to batchSize items completed before the cutoff, in one transaction; returns how many moved
+    int archiveCompletedBefore(LocalDateTime cutoff, int batchSize);
+
+    // Keyset pagination, newest first, like TodoItemService.getTodoItemPageForUser
+    ArchivedTodoItemPage getArchivedItemPageForUser(Long userId, TodoCursor cursor, int pageSize);
+
+    // Puts archived items back in the live list (still completed). Ids not in the user's archive are skipped.
+    int restoreItems(Collection<Long> itemIds, Long userId);
+}
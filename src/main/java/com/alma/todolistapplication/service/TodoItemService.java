@@ -1,30 +1,52 @@
 package com.alma.todolistapplication.service;
 
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.dto.TodoItemPage;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
 import com.alma.todolistapplication.model.TodoItem;
-import com.alma.todolistapplication.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+// Everything is keyed by user id, so callers never need to load or carry a User entity
 public interface TodoItemService {
 
-    List<TodoItem> getTodoItemsForUser(User user); // Get all items for a specific user
-    List<TodoItem> getTodoItemsForUser(Long userId); // Overload for convenience
+    List<TodoItemDto> getTodoItemsForUser(Long userId); // Get all items for a specific user, as snapshots
+
+    // Keyset pagination, newest first. A null cursor returns the first page.
+    TodoItemPage getTodoItemPageForUser(Long userId, TodoCursor cursor, int pageSize);
 
-    Optional<TodoItem> getTodoItemByIdForUser(Long itemId, User user);
     Optional<TodoItem> getTodoItemByIdForUser(Long itemId, Long userId);
 
-    TodoItem saveTodoItem(TodoItem todoItem, User user);
-    TodoItem createTodoItem(String description, LocalDateTime dueDate, User user); // Assumes this signature
+    TodoItem saveTodoItem(TodoItem todoItem, Long userId);
+    TodoItem createTodoItem(String description, LocalDateTime dueDate, Long userId);
+
+    void deleteTodoItem(Long itemId, Long userId);
+
+    TodoItem toggleComplete(Long itemId, Long userId);
 
-    void deleteTodoItem(Long itemId, User user);
+    // Sets rather than flips the state, so a repeated submit is harmless. Returns false if it was already in that state.
+    boolean setCompleted(Long itemId, Long userId, boolean completed);
 
-    TodoItem toggleComplete(Long itemId, User user);
+    // --- Multi-item operations: a few set-based statements / JDBC batches per call, scoped to the owner.
+    // Ids that don't exist or belong to someone else are skipped; the return value counts affected items.
+    List<TodoItem> createTodoItems(List<CreateTodoRequest> requests, Long userId);
+    int toggleComplete(Collection<Long> itemIds, Long userId);
+    int deleteTodoItems(Collection<Long> itemIds, Long userId);
+    // Adds items read from an export, as new items (their ids are ignored) keeping status and timestamps; one import batch
+    int importTodoItems(List<TodoItemDto> items, Long userId);
 
     // --- NEW METHODS FOR COUNTS AND CLEARING ---
-    long countTotalTasksForUser(User user);
-    long countActiveTasksForUser(User user);
-    long countCompletedTasksForUser(User user);
-    void deleteAllCompletedTasksForUser(User user);
-}
\ No newline at end of file
+    TaskCounts getTaskCountsForUser(Long userId); // All three counters in one read
+    Optional<Long> getListVersionForUser(Long userId); // Changes whenever the user's list does; empty if unknown
+    VersionedTaskCounts getVersionedTaskCountsForUser(Long userId); // Counters and list version in one read
+    long countTotalTasksForUser(Long userId);
+    long countActiveTasksForUser(Long userId);
+    long countCompletedTasksForUser(Long userId);
+    // "Mark all complete" and "clear completed" are chunked jobs: see BulkJobService
+}
@@ -0,0 +1,12 @@
+package com.alma.todolistapplication.service;
+
+import com.alma.todolistapplication.dto.TodoSearchResult;
+
+public interface TodoSearchService {
+
+    // Pages are OFFSET-based (results are ordered by relevance, not by a key), so cap how deep a client can go
+    int MAX_PAGE = 100;
+
+    // Items of the user whose description contains every word of the query (as a word prefix), best match first
+    TodoSearchResult searchTodoItemsForUser(Long userId, String query, int page, int size);
+}
@@ -0,0 +1,19 @@
+package com.alma.todolistapplication.service;
+
+import com.alma.todolistapplication.dto.TodoImportResult;
+import com.alma.todolistapplication.transfer.TransferFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Backup and migration of a whole list, streamed in both directions: memory use doesn't grow with the list
+public interface TodoTransferService {
+
+    // Writes every item of the user's live list, newest first, one short read per chunk; returns how many were written
+    long exportTodoItems(Long userId, TransferFormat format, OutputStream out) throws IOException;
+
+    // Adds the items in the upload in batches, one transaction each. Invalid records are skipped and reported;
+    // a malformed file stops the import, keeping the batches already added.
+    TodoImportResult importTodoItems(Long userId, TransferFormat format, InputStream in) throws IOException;
+}
@@ -0,0 +1,132 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.cache.TodoListCache;
+import com.alma.todolistapplication.event.TodoItemsCompletedEvent;
+import com.alma.todolistapplication.event.TodoItemsDeletedEvent;
+import com.alma.todolistapplication.model.BulkJob;
+import com.alma.todolistapplication.repository.BulkJobRepository;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.service.BulkJobService;
+import com.alma.todolistapplication.service.TaskStatsService;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Timed("app.service.invocations")
+@Transactional
+public class BulkJobServiceImpl implements BulkJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkJobServiceImpl.class);
+
+    private static final Set<BulkJob.Status> UNFINISHED = EnumSet.of(BulkJob.Status.PENDING, BulkJob.Status.RUNNING);
+
+    private final BulkJobRepository bulkJobRepository;
+    private final TodoItemRepository todoItemRepository;
+    private final TaskStatsService taskStatsService;
+    private final TodoListCache todoListCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public BulkJobServiceImpl(BulkJobRepository bulkJobRepository, TodoItemRepository todoItemRepository,
+                              TaskStatsService taskStatsService, TodoListCache todoListCache,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.bulk-jobs.chunk-size:1000}") int chunkSize) {
+        this.bulkJobRepository = bulkJobRepository;
+        this.todoItemRepository = todoItemRepository;
+        this.taskStatsService = taskStatsService;
+        this.todoListCache = todoListCache;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkJob submit(Long userId, BulkJob.Type type) {
+        if (userId == null || type == null) {
+            throw new IllegalArgumentException("User and job type cannot be null");
+        }
+        // A double-clicked button shows the progress of the first job rather than starting another
+        Optional<BulkJob> unfinished = bulkJobRepository.findFirstByUserIdAndTypeAndStatusIn(userId, type, UNFINISHED);
+        if (unfinished.isPresent()) {
+            return unfinished.get();
+        }
+        long maxId = todoItemRepository.findMaxIdByUserId(userId).orElse(0L);
+        BulkJob job = bulkJobRepository.save(new BulkJob(userId, type, maxId));
+        logger.info("Submitted {} job {} for user {} (items up to id {})", type, job.getId(), userId, maxId);
+        return job;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BulkJob> getJobForUser(Long jobId, Long userId) {
+        return bulkJobRepository.findByIdAndUserId(jobId, userId);
+    }
+
+    @Override
+    public BulkJob processNextChunk(Long jobId) {
+        BulkJob job = bulkJobRepository.findByIdForUpdate(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Bulk job not found with id: " + jobId));
+        if (job.isFinished()) {
+            return job;
+        }
+        Long userId = job.getUserId();
+        boolean completing = job.getType() == BulkJob.Type.MARK_ALL_COMPLETED;
+        // The items still to change, so a chunk is never spent on rows already in the target state. Gaps in
+        // the range hold only rows already there, or belonging to someone else: the statement skips those.
+        List<Long> ids = todoItemRepository.findIdsInRangeForUser(userId, !completing, job.getLastId(), job.getMaxId(),
+                PageRequest.of(0, chunkSize));
+        LocalDateTime now = LocalDateTime.now();
+        if (!ids.isEmpty()) {
+            long upToId = ids.get(ids.size() - 1);
+            int changed = completing
+                    ? todoItemRepository.markCompletedInRangeForUser(userId, job.getLastId(), upToId, now)
+                    : todoItemRepository.deleteCompletedInRangeForUser(userId, job.getLastId(), upToId);
+            if (changed > 0) {
+                long version = taskStatsService.recordChange(userId, completing ? 0 : -changed, completing ? changed : -changed);
+                todoListCache.invalidate(userId);
+                eventPublisher.publishEvent(completing
+                        ? new TodoItemsCompletedEvent(userId, ids, true, version)
+                        : new TodoItemsDeletedEvent(userId, ids, version));
+            }
+            job.setLastId(upToId);
+            job.setProcessed(job.getProcessed() + changed);
+            job.setStatus(BulkJob.Status.RUNNING);
+        }
+        if (ids.size() < chunkSize) {
+            job.setStatus(BulkJob.Status.DONE);
+            job.setFinishedAt(now);
+            logger.info("{} job {} for user {} done: {} items", job.getType(), jobId, userId, job.getProcessed());
+        }
+        job.setUpdatedAt(now);
+        return job;
+    }
+
+    @Override
+    public void markFailed(Long jobId, String error) {
+        bulkJobRepository.findByIdForUpdate(jobId).ifPresent(job -> {
+            job.setStatus(BulkJob.Status.FAILED);
+            job.setError(error == null ? null : error.substring(0, Math.min(error.length(), 255)));
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getFinishedAt());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> findStalledJobIds(LocalDateTime notUpdatedSince) {
+        return bulkJobRepository.findIdsByStatusInAndUpdatedAtBefore(UNFINISHED, notUpdatedSince);
+    }
+}
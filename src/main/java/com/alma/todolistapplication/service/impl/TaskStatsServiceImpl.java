@@ -0,0 +1,108 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
+import com.alma.todolistapplication.model.UserTaskStats;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.repository.UserTaskStatsRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+@Transactional
+public class TaskStatsServiceImpl implements TaskStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatsServiceImpl.class);
+
+    private final UserTaskStatsRepository statsRepository;
+    private final TodoItemRepository todoItemRepository;
+
+    @Autowired
+    public TaskStatsServiceImpl(UserTaskStatsRepository statsRepository, TodoItemRepository todoItemRepository) {
+        this.statsRepository = statsRepository;
+        this.todoItemRepository = todoItemRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskCounts getCountsForUser(Long userId) {
+        if (userId == null) {
+            return TaskCounts.of(0, 0);
+        }
+        return statsRepository.findById(userId)
+                .map(stats -> TaskCounts.of(stats.getTotalCount(), stats.getCompletedCount()))
+                // No row yet (user predates the stats table): count directly until reconciliation creates it
+                .orElseGet(() -> countItems(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> getListVersion(Long userId) {
+        return userId == null ? Optional.empty() : statsRepository.findListVersionByUserId(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedTaskCounts getVersionedCountsForUser(Long userId) {
+        if (userId == null) {
+            return new VersionedTaskCounts(TaskCounts.of(0, 0), null);
+        }
+        return statsRepository.findById(userId)
+                .map(stats -> new VersionedTaskCounts(TaskCounts.of(stats.getTotalCount(), stats.getCompletedCount()),
+                        stats.getListVersion()))
+                .orElseGet(() -> new VersionedTaskCounts(countItems(userId), null));
+    }
+
+    @Override
+    public long recordChange(Long userId, long totalDelta, long completedDelta) {
+        if (statsRepository.applyDelta(userId, totalDelta, completedDelta) == 0) {
+            // The mutation is already flushed, so a recount includes it
+            reconcileUser(userId);
+        }
+        return statsRepository.findListVersionByUserId(userId)
+                .orElseThrow(() -> new IllegalStateException("No task stats row for user " + userId));
+    }
+
+    @Override
+    public void initializeForUser(Long userId) {
+        statsRepository.save(new UserTaskStats(userId, 0, 0, 0));
+    }
+
+    @Override
+    public boolean reconcileUser(Long userId) {
+        // A missing row is created first, so there is always one to lock: two first writes for a user without stats
+        // would otherwise both insert one, and the loser's mutation would roll back on the primary key
+        boolean created = statsRepository.insertIfAbsent(userId) > 0;
+        // Lock the stats row before counting so no delta can slip in between the count and the write
+        UserTaskStats stats = statsRepository.findByUserIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("No task stats row for user " + userId));
+        TaskCounts actual = countItems(userId);
+
+        if (created) {
+            stats.setTotalCount(actual.total());
+            stats.setCompletedCount(actual.completed());
+            logger.info("Created task stats for user {}: total={}, completed={}", userId, actual.total(), actual.completed());
+            return true;
+        }
+        if (stats.getTotalCount() == actual.total() && stats.getCompletedCount() == actual.completed()) {
+            return false;
+        }
+        logger.warn("Task stats for user {} drifted (total {} -> {}, completed {} -> {}), correcting",
+                userId, stats.getTotalCount(), actual.total(), stats.getCompletedCount(), actual.completed());
+        stats.setTotalCount(actual.total());
+        stats.setCompletedCount(actual.completed());
+        stats.setListVersion(stats.getListVersion() + 1); // Cached copies were built on wrong counts too
+        return true;
+    }
+
+    private TaskCounts countItems(Long userId) {
+        return TaskCounts.of(todoItemRepository.countByUserId(userId),
+                todoItemRepository.countByUserIdAndCompleted(userId, true));
+    }
+}
@@ -0,0 +1,112 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.cache.TodoListCache;
+import com.alma.todolistapplication.dto.ArchivedTodoItemPage;
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.event.TodoItemsSavedEvent;
+import com.alma.todolistapplication.event.TodoListChangedEvent;
+import com.alma.todolistapplication.model.ArchivedTodoItem;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.repository.ArchivedTodoItemRepository;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import com.alma.todolistapplication.service.TodoArchiveService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Timed("app.service.invocations")
+@Transactional
+public class TodoArchiveServiceImpl implements TodoArchiveService {
+
+    private final TodoItemRepository todoItemRepository;
+    private final ArchivedTodoItemRepository archivedTodoItemRepository;
+    private final TaskStatsService taskStatsService;
+    private final TodoListCache todoListCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public TodoArchiveServiceImpl(TodoItemRepository todoItemRepository, ArchivedTodoItemRepository archivedTodoItemRepository,
+                                  TaskStatsService taskStatsService, TodoListCache todoListCache,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.todoItemRepository = todoItemRepository;
+        this.archivedTodoItemRepository = archivedTodoItemRepository;
+        this.taskStatsService = taskStatsService;
+        this.todoListCache = todoListCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public int archiveCompletedBefore(LocalDateTime cutoff, int batchSize) {
+        // Locked until commit: a toggle or delete of one of these waits, then finds it gone and gets a 404/409
+        List<TodoItem> items = todoItemRepository.findArchivable(cutoff, PageRequest.of(0, batchSize));
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = items.stream().map(TodoItem::getId).toList();
+        archivedTodoItemRepository.copyFromTodoItems(ids, LocalDateTime.now());
+        todoItemRepository.deleteByIdIn(ids);
+
+        // Stats rows in user id order, so two batches can never lock them in opposite orders
+        Map<Long, Integer> movedPerUser = new TreeMap<>();
+        items.forEach(item -> movedPerUser.merge(item.getUser().getId(), 1, Integer::sum));
+        movedPerUser.forEach((userId, moved) -> {
+            long version = taskStatsService.recordChange(userId, -moved, -moved);
+            todoListCache.invalidate(userId);
+            eventPublisher.publishEvent(new TodoListChangedEvent(userId, version)); // Open pages resync without them
+        });
+        return ids.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ArchivedTodoItemPage getArchivedItemPageForUser(Long userId, TodoCursor cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        // One extra row tells whether there is a next page, as in TodoItemServiceImpl
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ArchivedTodoItem> rows = cursor == null
+                ? archivedTodoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit)
+                : archivedTodoItemRepository.findPageAfterCursor(userId, cursor.createdAt(), cursor.id(), limit);
+        if (rows.size() <= pageSize) {
+            return new ArchivedTodoItemPage(rows, null);
+        }
+        List<ArchivedTodoItem> items = rows.subList(0, pageSize);
+        return new ArchivedTodoItemPage(items, TodoCursor.of(items.get(pageSize - 1)));
+    }
+
+    @Override
+    public int restoreItems(Collection<Long> itemIds, Long userId) {
+        if (itemIds == null || userId == null) {
+            throw new IllegalArgumentException("Item IDs and User cannot be null for restoring");
+        }
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        // Locked, so a second restore of the same ids finds nothing instead of inserting them twice
+        List<ArchivedTodoItem> items = archivedTodoItemRepository.findByUserIdAndIdInForUpdate(userId, itemIds);
+        if (items.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = items.stream().map(ArchivedTodoItem::getId).toList();
+        archivedTodoItemRepository.copyToTodoItems(ids);
+        archivedTodoItemRepository.deleteByIdIn(ids);
+        long version = taskStatsService.recordChange(userId, ids.size(), ids.size());
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, items.stream().map(TodoItemDto::from).toList(), version));
+        return ids.size();
+    }
+}
@@ -1,22 +1,43 @@
 package com.alma.todolistapplication.service.impl;
 
+import com.alma.todolistapplication.cache.TodoListCache;
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.dto.TodoItemPage;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
+import com.alma.todolistapplication.event.TodoItemsCompletedEvent;
+import com.alma.todolistapplication.event.TodoItemsDeletedEvent;
+import com.alma.todolistapplication.event.TodoItemsSavedEvent;
+import com.alma.todolistapplication.event.TodoItemsToggledEvent;
 import com.alma.todolistapplication.model.TodoItem;
 import com.alma.todolistapplication.model.User;
 import com.alma.todolistapplication.repository.TodoItemRepository;
 import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
 import com.alma.todolistapplication.service.TodoItemService;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger; // Added Logger
 import org.slf4j.LoggerFactory; // Added Logger
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed("app.service.invocations") // Every public method, tagged by class and method
 @Transactional
 public class TodoItemServiceImpl implements TodoItemService {
 
@@ -24,40 +45,66 @@ public class TodoItemServiceImpl implements TodoItemService {
 
     private final TodoItemRepository todoItemRepository;
     private final UserRepository userRepository;
+    private final TaskStatsService taskStatsService;
+    private final TodoListCache todoListCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TodoItemServiceImpl(TodoItemRepository todoItemRepository, UserRepository userRepository) {
+    public TodoItemServiceImpl(TodoItemRepository todoItemRepository, UserRepository userRepository,
+                               TaskStatsService taskStatsService, TodoListCache todoListCache,
+                               ApplicationEventPublisher eventPublisher) {
         this.todoItemRepository = todoItemRepository;
         this.userRepository = userRepository;
+        this.taskStatsService = taskStatsService;
+        this.todoListCache = todoListCache;
+        this.eventPublisher = eventPublisher;
     }
 
+    // List reads go through TodoListCache. SUPPORTS means a cache hit doesn't open a transaction
+    // (and so doesn't borrow a pooled connection); on a miss the repository runs its own read-only one.
     @Override
-    public List<TodoItem> getTodoItemsForUser(User user) {
-        if (user == null || user.getId() == null) {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<TodoItemDto> getTodoItemsForUser(Long userId) {
+        if (userId == null) {
             return Collections.emptyList();
         }
-        return todoItemRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        return todoListCache.getList(userId, () -> todoItemRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(TodoItemDto::from)
+                .toList());
     }
 
     @Override
-    public List<TodoItem> getTodoItemsForUser(Long userId) {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public TodoItemPage getTodoItemPageForUser(Long userId, TodoCursor cursor, int pageSize) {
         if (userId == null) {
-            return Collections.emptyList();
+            return TodoItemPage.empty();
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (cursor == null) {
+            return todoListCache.getFirstPage(userId, pageSize, () -> loadTodoItemPage(userId, null, pageSize));
         }
-        return todoItemRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        return loadTodoItemPage(userId, cursor, pageSize);
     }
 
+    private TodoItemPage loadTodoItemPage(Long userId, TodoCursor cursor, int pageSize) {
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<TodoItem> rows = cursor == null
+                ? todoItemRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit)
+                : todoItemRepository.findPageAfterCursor(userId, cursor.createdAt(), cursor.id(), limit);
 
-    @Override
-    public Optional<TodoItem> getTodoItemByIdForUser(Long itemId, User user) {
-        if (itemId == null || user == null || user.getId() == null) {
-            return Optional.empty();
+        List<TodoItemDto> items = rows.stream().limit(pageSize).map(TodoItemDto::from).toList();
+        if (rows.size() <= pageSize) {
+            return new TodoItemPage(items, null);
         }
-        return todoItemRepository.findById(itemId)
-                .filter(item -> item.getUser().getId().equals(user.getId()));
+        return new TodoItemPage(items, TodoCursor.of(items.get(pageSize - 1)));
     }
 
+
     @Override
+    @Transactional(readOnly = true)
     public Optional<TodoItem> getTodoItemByIdForUser(Long itemId, Long userId) {
         if (itemId == null || userId == null) {
             return Optional.empty();
@@ -68,13 +115,13 @@ public class TodoItemServiceImpl implements TodoItemService {
 
 
     @Override
-    public TodoItem saveTodoItem(TodoItem todoItem, User user) {
-        if (user == null || user.getId() == null) {
+    public TodoItem saveTodoItem(TodoItem todoItem, Long userId) {
+        if (userId == null) {
             throw new IllegalArgumentException("User cannot be null when saving a TodoItem");
         }
-        if(todoItem.getUser() == null || !todoItem.getUser().getId().equals(user.getId())) {
-            User persistentUser = userRepository.findById(user.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + user.getId()));
+        if(todoItem.getUser() == null || !todoItem.getUser().getId().equals(userId)) {
+            User persistentUser = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
             todoItem.setUser(persistentUser);
         }
 
@@ -82,85 +129,242 @@ public class TodoItemServiceImpl implements TodoItemService {
             // @PrePersist in TodoItem entity should handle this, but defensive check is okay
             todoItem.setCreatedAt(LocalDateTime.now());
         }
-        return todoItemRepository.save(todoItem);
+
+        // Work out the counter change against the stored row (if any) before it is overwritten
+        boolean isNew = todoItem.getId() == null;
+        boolean wasCompleted = !isNew && todoItemRepository.findById(todoItem.getId())
+                .map(TodoItem::isCompleted)
+                .orElse(false);
+        TodoItem saved = todoItemRepository.save(todoItem);
+        long version = taskStatsService.recordChange(userId, isNew ? 1 : 0,
+                (saved.isCompleted() ? 1 : 0) - (wasCompleted ? 1 : 0));
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, List.of(TodoItemDto.from(saved)), version));
+        return saved;
     }
 
     @Override
-    public TodoItem createTodoItem(String description, LocalDateTime dueDate, User user) {
-        if (user == null || user.getId() == null) {
+    public TodoItem createTodoItem(String description, LocalDateTime dueDate, Long userId) {
+        if (userId == null) {
             throw new IllegalArgumentException("User cannot be null for creating a TodoItem");
         }
-        User persistentUser = userRepository.findById(user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + user.getId()));
+        // A reference is enough to fill user_id; userId comes from the logged-in principal, and a user deleted
+        // meanwhile fails the foreign key on INSERT instead of costing every create a SELECT
+        User userReference = userRepository.getReferenceById(userId);
 
-        TodoItem newItem = new TodoItem(description, persistentUser); // Constructor sets description, user, createdAt
+        TodoItem newItem = new TodoItem(description, userReference); // Constructor sets description, user, createdAt
         newItem.setDueDate(dueDate);
-        return todoItemRepository.save(newItem);
+        TodoItem saved = todoItemRepository.save(newItem);
+        long version = taskStatsService.recordChange(userId, 1, 0);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, List.of(TodoItemDto.from(saved)), version));
+        return saved;
     }
 
 
     @Override
-    public void deleteTodoItem(Long itemId, User user) {
-        if (itemId == null || user == null || user.getId() == null) {
+    public void deleteTodoItem(Long itemId, Long userId) {
+        if (itemId == null || userId == null) {
             throw new IllegalArgumentException("Item ID and User cannot be null for deletion");
         }
-        TodoItem item = todoItemRepository.findById(itemId)
-                .orElseThrow(() -> new IllegalArgumentException("TodoItem not found with id: " + itemId));
+        // The completed predicate makes the counter change exact without reading the row. Single deletes are
+        // mostly of active items (finished ones go via "clear completed"), so that one statement usually suffices.
+        boolean wasCompleted = false;
+        int deleted = todoItemRepository.deleteByIdForUserAndCompleted(itemId, userId, false);
+        if (deleted == 0) {
+            deleted = todoItemRepository.deleteByIdForUserAndCompleted(itemId, userId, true);
+            wasCompleted = true;
+        }
+        if (deleted == 0) {
+            checkOwnership(itemId, userId, "delete");
+            throw new OptimisticLockingFailureException("TodoItem " + itemId + " changed while being deleted");
+        }
+        long version = taskStatsService.recordChange(userId, -1, wasCompleted ? -1 : 0);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsDeletedEvent(userId, List.of(itemId), version));
+    }
 
-        if (!item.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("User not authorized to delete this item");
+    @Override
+    public TodoItem toggleComplete(Long itemId, Long userId) {
+        if (itemId == null || userId == null) {
+            throw new IllegalArgumentException("Item ID and User cannot be null for toggling completion");
         }
-        todoItemRepository.deleteById(itemId);
+        if (todoItemRepository.toggleCompletedByIdForUser(itemId, userId, LocalDateTime.now()) == 0) {
+            checkOwnership(itemId, userId, "modify");
+            throw new OptimisticLockingFailureException("TodoItem " + itemId + " changed while being toggled");
+        }
+        // Callers need the new state anyway, and it tells which way the counter moved
+        TodoItem toggled = todoItemRepository.findById(itemId)
+                .orElseThrow(() -> new OptimisticLockingFailureException("TodoItem " + itemId + " deleted while being toggled"));
+        long version = taskStatsService.recordChange(userId, 0, toggled.isCompleted() ? 1 : -1);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, List.of(TodoItemDto.from(toggled)), version));
+        return toggled;
     }
 
     @Override
-    public TodoItem toggleComplete(Long itemId, User user) {
-        if (itemId == null || user == null || user.getId() == null) {
+    public boolean setCompleted(Long itemId, Long userId, boolean completed) {
+        if (itemId == null || userId == null) {
             throw new IllegalArgumentException("Item ID and User cannot be null for toggling completion");
         }
-        TodoItem item = todoItemRepository.findById(itemId)
+        LocalDateTime completedAt = completed ? LocalDateTime.now() : null;
+        if (todoItemRepository.updateCompletedByIdForUser(itemId, userId, completed, completedAt) == 0) {
+            checkOwnership(itemId, userId, "modify");
+            return false; // Ours, and already in the requested state
+        }
+        long version = taskStatsService.recordChange(userId, 0, completed ? 1 : -1);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsCompletedEvent(userId, List.of(itemId), completed, version));
+        return true;
+    }
+
+    // Only called after an owner-scoped statement touched no row: tells "no such item" from "someone else's item"
+    private void checkOwnership(Long itemId, Long userId, String action) {
+        Long ownerId = todoItemRepository.findOwnerIdById(itemId)
                 .orElseThrow(() -> new IllegalArgumentException("TodoItem not found with id: " + itemId));
+        if (!ownerId.equals(userId)) {
+            throw new SecurityException("User not authorized to " + action + " this item");
+        }
+    }
+
+    @Override
+    public List<TodoItem> createTodoItems(List<CreateTodoRequest> requests, Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User cannot be null for creating TodoItems");
+        }
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        User persistentUser = userRepository.getReferenceById(userId); // See createTodoItem
+
+        List<TodoItem> newItems = new ArrayList<>(requests.size());
+        for (CreateTodoRequest request : requests) {
+            TodoItem newItem = new TodoItem(request.description(), persistentUser);
+            newItem.setDueDate(request.dueDate());
+            newItems.add(newItem);
+        }
+        // Ids come from the pooled sequence, so these flush as batched INSERTs rather than one round trip each
+        List<TodoItem> saved = todoItemRepository.saveAll(newItems);
+        long version = taskStatsService.recordChange(userId, saved.size(), 0);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, saved.stream().map(TodoItemDto::from).toList(), version));
+        return saved;
+    }
 
-        if (!item.getUser().getId().equals(user.getId())) {
-            throw new SecurityException("User not authorized to modify this item");
+    @Override
+    public int importTodoItems(List<TodoItemDto> items, Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User cannot be null for importing TodoItems");
+        }
+        if (items.isEmpty()) {
+            return 0;
+        }
+        User persistentUser = userRepository.getReferenceById(userId); // See createTodoItem
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoItem> newItems = new ArrayList<>(items.size());
+        int completed = 0;
+        for (TodoItemDto item : items) {
+            TodoItem newItem = new TodoItem(item.description(), persistentUser);
+            if (item.createdAt() != null) {
+                newItem.setCreatedAt(item.createdAt());
+            }
+            newItem.setDueDate(item.dueDate());
+            if (item.completed()) {
+                newItem.setCompleted(true);
+                newItem.setCompletedAt(item.completedAt() != null ? item.completedAt() : now);
+                completed++;
+            }
+            newItems.add(newItem);
+        }
+        List<TodoItem> saved = todoItemRepository.saveAll(newItems); // Batched INSERTs, as in createTodoItems
+        long version = taskStatsService.recordChange(userId, saved.size(), completed);
+        todoListCache.invalidate(userId);
+        eventPublisher.publishEvent(new TodoItemsSavedEvent(userId, saved.stream().map(TodoItemDto::from).toList(), version));
+        return saved.size();
+    }
+
+    @Override
+    public int toggleComplete(Collection<Long> itemIds, Long userId) {
+        if (itemIds == null || userId == null) {
+            throw new IllegalArgumentException("Item IDs and User cannot be null for toggling completion");
+        }
+        if (itemIds.isEmpty()) {
+            return 0;
         }
+        // Those completed before the flip become active and the rest completed. The rows are locked first, as a bulk job
+        // chunk does, so no concurrent toggle or delete can change them between the count and the flip.
+        List<Boolean> before = todoItemRepository.findCompletedByUserIdAndIdInForUpdate(userId, itemIds);
+        if (before.isEmpty()) {
+            return 0;
+        }
+        long completedBefore = before.stream().filter(Boolean::booleanValue).count();
+        int toggled = todoItemRepository.toggleCompletedForUser(userId, itemIds, LocalDateTime.now());
+        if (toggled > 0) {
+            long version = taskStatsService.recordChange(userId, 0, (toggled - completedBefore) - completedBefore);
+            todoListCache.invalidate(userId);
+            eventPublisher.publishEvent(new TodoItemsToggledEvent(userId, List.copyOf(itemIds), version));
+        }
+        return toggled;
+    }
 
-        item.setCompleted(!item.isCompleted());
-        if (item.isCompleted()) {
-            item.setCompletedAt(LocalDateTime.now());
-        } else {
-            item.setCompletedAt(null);
+    @Override
+    public int deleteTodoItems(Collection<Long> itemIds, Long userId) {
+        if (itemIds == null || userId == null) {
+            throw new IllegalArgumentException("Item IDs and User cannot be null for deletion");
         }
-        return todoItemRepository.save(item);
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        // Two deletes split by status give exact counter deltas without reading the rows first
+        int deletedCompleted = todoItemRepository.deleteByUserIdAndIdInAndCompleted(userId, itemIds, true);
+        int deletedActive = todoItemRepository.deleteByUserIdAndIdInAndCompleted(userId, itemIds, false);
+        int deleted = deletedCompleted + deletedActive;
+        if (deleted > 0) {
+            long version = taskStatsService.recordChange(userId, -deleted, -deletedCompleted);
+            todoListCache.invalidate(userId);
+            eventPublisher.publishEvent(new TodoItemsDeletedEvent(userId, List.copyOf(itemIds), version));
+        }
+        return deleted;
     }
 
     // --- IMPLEMENTATION OF NEW METHODS ---
+    // Counts come from the per-user stats row (one primary-key read) rather than COUNT(*) over todo_items
     @Override
-    public long countTotalTasksForUser(User user) {
-        if (user == null || user.getId() == null) return 0;
-        return todoItemRepository.countByUserId(user.getId());
+    @Transactional(readOnly = true)
+    public TaskCounts getTaskCountsForUser(Long userId) {
+        if (userId == null) return TaskCounts.of(0, 0);
+        return taskStatsService.getCountsForUser(userId);
     }
 
     @Override
-    public long countActiveTasksForUser(User user) {
-        if (user == null || user.getId() == null) return 0;
-        // Active tasks are those not completed
-        return todoItemRepository.countByUserIdAndCompleted(user.getId(), false);
+    @Transactional(readOnly = true)
+    public Optional<Long> getListVersionForUser(Long userId) {
+        return taskStatsService.getListVersion(userId);
     }
 
     @Override
-    public long countCompletedTasksForUser(User user) {
-        if (user == null || user.getId() == null) return 0;
-        return todoItemRepository.countByUserIdAndCompleted(user.getId(), true);
+    @Transactional(readOnly = true)
+    public VersionedTaskCounts getVersionedTaskCountsForUser(Long userId) {
+        return taskStatsService.getVersionedCountsForUser(userId);
     }
 
     @Override
-    public void deleteAllCompletedTasksForUser(User user) {
-        if (user != null && user.getId() != null) {
-            int deletedCount = todoItemRepository.deleteAllCompletedForUser(user.getId());
-            logger.info("Deleted {} completed tasks for user {}", deletedCount, user.getUsername());
-        } else {
-            logger.warn("Attempted to delete completed tasks for a null user or user with null ID.");
-        }
+    @Transactional(readOnly = true)
+    public long countTotalTasksForUser(Long userId) {
+        return getTaskCountsForUser(userId).total();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countActiveTasksForUser(Long userId) {
+        // Active tasks are those not completed
+        return getTaskCountsForUser(userId).active();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countCompletedTasksForUser(Long userId) {
+        return getTaskCountsForUser(userId).completed();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.config.FullTextIndexInitializer;
+import com.alma.todolistapplication.dto.TodoSearchResult;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.service.TodoSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Service
+@Transactional(readOnly = true)
+public class TodoSearchServiceImpl implements TodoSearchService {
+
+    static final int MAX_TERMS = 8;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final TodoItemRepository todoItemRepository;
+    private final FullTextIndexInitializer fullTextIndex;
+
+    @Autowired
+    public TodoSearchServiceImpl(TodoItemRepository todoItemRepository, FullTextIndexInitializer fullTextIndex) {
+        this.todoItemRepository = todoItemRepository;
+        this.fullTextIndex = fullTextIndex;
+    }
+
+    @Override
+    public TodoSearchResult searchTodoItemsForUser(Long userId, String query, int page, int size) {
+        if (userId == null) {
+            throw new IllegalArgumentException("User cannot be null for searching TodoItems");
+        }
+        if (page < 0 || page > MAX_PAGE || size < 1) {
+            throw new IllegalArgumentException("Invalid search page " + page + " of size " + size);
+        }
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty()) {
+            return TodoSearchResult.empty(trimmed);
+        }
+
+        PageRequest pageable = PageRequest.of(page, size);
+        String booleanQuery = fullTextIndex.isAvailable() ? toBooleanQuery(trimmed, fullTextIndex.getMinTokenSize(), fullTextIndex.getStopwords()) : null;
+        Slice<TodoItem> hits = booleanQuery != null
+                ? todoItemRepository.searchFullText(userId, booleanQuery, pageable)
+                : todoItemRepository.findByUserIdAndDescriptionContainingIgnoreCaseOrderByCreatedAtDescIdDesc(userId, trimmed, pageable);
+        return new TodoSearchResult(hits.getContent(), trimmed, page, hits.hasNext());
+    }
+
+    /**
+     * Turns free text into a MySQL boolean-mode query where every word is required and matches as a
+     * prefix: {@code "Buy milk!"} becomes {@code "+buy* +milk*"}. Punctuation, including the boolean
+     * operators themselves, is dropped so user input can't change the query's meaning.
+     * Words shorter than the server's {@code innodb_ft_min_token_size}, and stopwords, are not in
+     * the index and would match nothing, so they are left out. Returns null if no word is left; the
+     * caller then uses LIKE.
+     */
+    static String toBooleanQuery(String query, int minTokenSize, Set<String> stopwords) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : NON_WORD.split(query.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= minTokenSize && !stopwords.contains(word) && terms.size() < MAX_TERMS) {
+                terms.add(word);
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+        StringBuilder booleanQuery = new StringBuilder();
+        for (String term : terms) {
+            if (!booleanQuery.isEmpty()) {
+                booleanQuery.append(' ');
+            }
+            booleanQuery.append('+').append(term).append('*');
+        }
+        return booleanQuery.toString();
+    }
+}
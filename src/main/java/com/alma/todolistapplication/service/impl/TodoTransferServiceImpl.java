@@ -0,0 +1,254 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoImportResult;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.TodoTransferService;
+import com.alma.todolistapplication.transfer.TodoCsv;
+import com.alma.todolistapplication.transfer.TransferFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Not {@code @Transactional} as a whole. An export reads the list in keyset chunks, each in a short
+ * read-only transaction of its own ({@link TodoItemRepository#findExportKeysAfter}, then those items),
+ * and writes a chunk out only after its transaction has ended: a slow client holds the response,
+ * never a pooled connection. Items changed while an export runs may or may not be in it, as with
+ * paging through the list. An import commits one {@link TodoItemService#importTodoItems} transaction
+ * per batch and holds none while it parses. Either way only a chunk or a batch of items is in memory
+ * at a time, however long the list.
+ */
+@Service
+@Timed("app.service.invocations")
+public class TodoTransferServiceImpl implements TodoTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoTransferServiceImpl.class);
+
+    static final int MAX_DESCRIPTION_LENGTH = 255; // The description column
+    static final int MAX_LINE_LENGTH = 16 * 1024; // An NDJSON record; longer lines are skipped, not buffered
+    static final int MAX_ERRORS = 100;
+
+    private final TodoItemRepository todoItemRepository;
+    private final TodoItemService todoItemService;
+    private final ObjectWriter itemWriter;
+    private final ObjectReader itemReader;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int importBatchSize;
+    private final int exportChunkSize;
+
+    @Autowired
+    public TodoTransferServiceImpl(TodoItemRepository todoItemRepository, TodoItemService todoItemService,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                   @Value("${app.transfer.import-batch-size:500}") int importBatchSize,
+                                   @Value("${app.transfer.export-chunk-size:1000}") int exportChunkSize) {
+        this.todoItemRepository = todoItemRepository;
+        this.todoItemService = todoItemService;
+        this.itemWriter = objectMapper.writerFor(TodoItemDto.class);
+        this.itemReader = objectMapper.readerFor(TodoItemDto.class);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.importBatchSize = importBatchSize;
+        this.exportChunkSize = exportChunkSize;
+    }
+
+    @Override
+    public long exportTodoItems(Long userId, TransferFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == TransferFormat.CSV) {
+            TodoCsv.writeHeader(writer);
+        }
+        long written = 0;
+        Pageable chunkSize = PageRequest.of(0, exportChunkSize);
+        ExportChunk chunk = null;
+        do {
+            TodoCursor after = chunk == null ? null : chunk.last();
+            chunk = readOnlyTransaction.execute(status -> {
+                List<TodoCursor> keys = after == null
+                        ? todoItemRepository.findExportKeys(userId, chunkSize)
+                        : todoItemRepository.findExportKeysAfter(userId, after.createdAt(), after.id(), chunkSize);
+                if (keys.isEmpty()) {
+                    return new ExportChunk(List.of(), null, false);
+                }
+                // An item deleted since its key was read is just missing from the chunk
+                return new ExportChunk(todoItemRepository.findExportItems(userId, keys.stream().map(TodoCursor::id).toList()),
+                        keys.get(keys.size() - 1), keys.size() == exportChunkSize);
+            });
+            for (TodoItemDto item : chunk.items()) {
+                writeItem(writer, format, item);
+            }
+            written += chunk.items().size();
+        } while (chunk.more());
+        writer.flush();
+        logger.info("Exported {} items of user {} as {} in {} ms", written, userId, format, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    private record ExportChunk(List<TodoItemDto> items, TodoCursor last, boolean more) {
+    }
+
+    private void writeItem(Writer writer, TransferFormat format, TodoItemDto item) throws IOException {
+        if (format == TransferFormat.CSV) {
+            TodoCsv.writeRecord(writer, item);
+        } else {
+            writer.write(itemWriter.writeValueAsString(item));
+            writer.write('\n');
+        }
+    }
+
+    @Override
+    public TodoImportResult importTodoItems(Long userId, TransferFormat format, InputStream in) throws IOException {
+        long started = System.currentTimeMillis();
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        ImportBatches batches = new ImportBatches(userId);
+        try {
+            if (format == TransferFormat.CSV) {
+                readCsv(reader, batches);
+            } else {
+                readNdjson(reader, batches);
+            }
+        } catch (TodoCsv.MalformedCsvException | IllegalArgumentException e) {
+            batches.error(e.getMessage() + "; import stopped there");
+        }
+        batches.flush();
+        TodoImportResult result = batches.result();
+        logger.info("Imported {} items for user {} from {} ({} rejected) in {} ms",
+                result.imported(), userId, format, result.rejected(), System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private void readCsv(Reader reader, ImportBatches batches) throws IOException {
+        TodoCsv.RecordReader records = new TodoCsv.RecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        TodoCsv.ItemMapper mapper = new TodoCsv.ItemMapper(header);
+        for (List<String> record = records.next(); record != null; record = records.next()) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                batches.add(records.getRecordLine(), mapper.toItem(record));
+            } catch (IllegalArgumentException e) {
+                batches.reject(records.getRecordLine(), e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(Reader reader, ImportBatches batches) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int lineNumber = 0;
+        int end;
+        while ((end = readLine(reader, line)) != -1) {
+            lineNumber++;
+            if (line.length() > MAX_LINE_LENGTH) {
+                batches.reject(lineNumber, "longer than " + MAX_LINE_LENGTH + " characters");
+            } else if (!line.toString().isBlank()) {
+                try {
+                    batches.add(lineNumber, itemReader.readValue(line.toString()));
+                } catch (JsonProcessingException e) {
+                    batches.reject(lineNumber, "not a to-do item: " + e.getOriginalMessage());
+                }
+            }
+            if (end == 0) {
+                break;
+            }
+        }
+    }
+
+    // Reads up to the next newline into line, keeping at most one character past MAX_LINE_LENGTH (enough to tell
+    // it is too long). Returns -1 at the end of the input, 0 for a last line without a newline, 1 otherwise.
+    private static int readLine(Reader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return -1;
+        }
+        while (c != -1 && c != '\n') {
+            if (c != '\r' && line.length() <= MAX_LINE_LENGTH) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        return c == -1 ? 0 : 1;
+    }
+
+    // Collects valid items and saves them a batch at a time
+    private final class ImportBatches {
+
+        private final Long userId;
+        private final List<TodoItemDto> batch = new ArrayList<>(importBatchSize);
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportBatches(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(int line, TodoItemDto item) {
+            if (item.description() == null || item.description().isBlank()) {
+                reject(line, "description is empty");
+                return;
+            }
+            if (item.description().length() > MAX_DESCRIPTION_LENGTH) {
+                reject(line, "description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+                return;
+            }
+            batch.add(item);
+            if (batch.size() == importBatchSize) {
+                flush();
+            }
+        }
+
+        void reject(int line, String reason) {
+            rejected++;
+            error("line " + line + ": " + reason);
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                imported += todoItemService.importTodoItems(batch, userId);
+                batch.clear();
+            }
+        }
+
+        TodoImportResult result() {
+            return new TodoImportResult(imported, rejected, List.copyOf(errors));
+        }
+    }
+}
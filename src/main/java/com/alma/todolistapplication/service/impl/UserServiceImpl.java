@@ -1,34 +1,57 @@
 package com.alma.todolistapplication.service.impl;
 
+import com.alma.todolistapplication.availability.UserAvailabilityIndex;
 import com.alma.todolistapplication.model.User;
 import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
 import com.alma.todolistapplication.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
 
 @Service
+@Timed("app.service.invocations") // Every public method, tagged by class and method
 @Transactional // Good practice to make service methods transactional
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder; // To hash passwords
+    private final TaskStatsService taskStatsService;
+    private final UserAvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transaction;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           TaskStatsService taskStatsService, UserAvailabilityIndex availabilityIndex,
+                           PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.taskStatsService = taskStatsService;
+        this.availabilityIndex = availabilityIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
+    // Not in a transaction while the password is hashed: that can wait for app.security.password-hashing.max-wait,
+    // and a transaction would hold a pooled connection the whole time. Only the inserts are one transaction
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerNewUser(User user) {
-        // Check if username or email already exists (optional, but good practice)
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new IllegalArgumentException("Username already exists: " + user.getUsername());
+        // Turn away a taken username or email before paying for the password hash. The availability index
+        // answers this from memory for most new names; the unique constraints below have the last word
+        if (!availabilityIndex.isUsernameAvailable(user.getUsername())) {
+            throw usernameTaken(user);
         }
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalArgumentException("Email already exists: " + user.getEmail());
+        if (!availabilityIndex.isEmailAvailable(user.getEmail())) {
+            throw emailTaken(user);
         }
 
         // Encode the password before saving
@@ -36,17 +59,53 @@ public class UserServiceImpl implements UserService {
         user.setEnabled(true); // Ensure user is enabled by default
         // Set default role if you had a role field (e.g., user.setRole(Roles.USER);)
 
-        return userRepository.save(user);
+        return transaction.execute(status -> save(user));
+    }
+
+    private User save(User user) {
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Taken by a registration that committed after the check above
+            String violated = violatedConstraint(e);
+            if (violated.contains(User.USERNAME_CONSTRAINT)) {
+                throw usernameTaken(user);
+            }
+            if (violated.contains(User.EMAIL_CONSTRAINT)) {
+                throw emailTaken(user);
+            }
+            throw e;
+        }
+        availabilityIndex.taken(savedUser.getUsername(), savedUser.getEmail());
+        taskStatsService.initializeForUser(savedUser.getId()); // Counters start at zero
+        return savedUser;
     }
 
     // Option A: Implement these if added to the interface
     @Override
     public boolean usernameExists(String username) {
-        return userRepository.existsByUsername(username);
+        return !availabilityIndex.isUsernameAvailable(username);
     }
 
     @Override
     public boolean emailExists(String email) {
-        return userRepository.existsByEmail(email);
+        return !availabilityIndex.isEmailAvailable(email);
+    }
+
+    private static IllegalArgumentException usernameTaken(User user) {
+        return new IllegalArgumentException("Username already exists: " + user.getUsername());
+    }
+
+    private static IllegalArgumentException emailTaken(User user) {
+        return new IllegalArgumentException("Email already exists: " + user.getEmail());
+    }
+
+    // The constraint's name as the database reported it ("users.uk_users_email" on MySQL 8), else the driver's message
+    private static String violatedConstraint(DataIntegrityViolationException e) {
+        String violated = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : e.getMostSpecificCause().getMessage();
+        return violated == null ? "" : violated.toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,208 @@
+package com.alma.todolistapplication.transfer;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * CSV (RFC 4180) for to-do exports: a header row, then one item per record with ISO-8601 timestamps.
+ * Fields are quoted only when they need it; quoted descriptions may span lines.
+ * <p>
+ * {@link RecordReader} parses one record at a time from a {@link Reader}, so an upload is never held
+ * in memory as a whole; a field longer than {@link #MAX_FIELD_LENGTH} ends the import instead of
+ * growing without bound.
+ */
+public final class TodoCsv {
+
+    public static final List<String> HEADER = List.of("id", "description", "completed", "created_at", "completed_at", "due_date");
+    public static final int MAX_FIELD_LENGTH = 8192;
+
+    private TodoCsv() {
+    }
+
+    public static void writeHeader(Writer out) throws IOException {
+        out.write(String.join(",", HEADER));
+        out.write("\r\n");
+    }
+
+    public static void writeRecord(Writer out, TodoItemDto item) throws IOException {
+        out.write(String.valueOf(item.id()));
+        out.write(',');
+        writeField(out, item.description());
+        out.write(',');
+        out.write(String.valueOf(item.completed()));
+        out.write(',');
+        writeField(out, item.createdAt());
+        out.write(',');
+        writeField(out, item.completedAt());
+        out.write(',');
+        writeField(out, item.dueDate());
+        out.write("\r\n");
+    }
+
+    private static void writeField(Writer out, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf('"') < 0 && text.indexOf(',') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Maps records to items by the column names in the header, so columns may come in any order and
+     * unknown ones are ignored. Only {@code description} is required; the id column is never used.
+     */
+    public static final class ItemMapper {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        public ItemMapper(List<String> header) {
+            for (int i = 0; i < header.size(); i++) {
+                columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("description")) {
+                throw new IllegalArgumentException("The header row has no description column");
+            }
+        }
+
+        // Throws IllegalArgumentException for a value that doesn't parse
+        public TodoItemDto toItem(List<String> record) {
+            return new TodoItemDto(null, field(record, "description"), Boolean.parseBoolean(field(record, "completed")),
+                    timestamp(record, "created_at"), timestamp(record, "completed_at"), timestamp(record, "due_date"));
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= record.size() ? null : record.get(index);
+        }
+
+        private LocalDateTime timestamp(List<String> record, String column) {
+            String value = field(record, column);
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return LocalDateTime.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(column + " is not an ISO-8601 date-time: " + value);
+            }
+        }
+    }
+
+    public static final class RecordReader {
+
+        private static final int NONE = -2;
+
+        private final Reader in;
+        private int peeked = NONE;
+        private int line = 1;
+        private int recordLine;
+
+        public RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        // Line the last record returned by next() started on, for error messages
+        public int getRecordLine() {
+            return recordLine;
+        }
+
+        /**
+         * The next record's fields, or null at the end of the input. A blank line is a record with one
+         * empty field.
+         *
+         * @throws MalformedCsvException for an unterminated quote or an overlong field; the rest of the
+         *                               input can't be trusted after that
+         */
+        public List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new MalformedCsvException("line " + recordLine + ": unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            append(field, '"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        append(field, (char) c);
+                    }
+                } else if (c == -1 || c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            peeked = next;
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else {
+                    append(field, (char) c);
+                }
+                c = read();
+            }
+        }
+
+        private void append(StringBuilder field, char c) {
+            if (field.length() == MAX_FIELD_LENGTH) {
+                throw new MalformedCsvException("line " + recordLine + ": field longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+            field.append(c);
+        }
+
+        private int read() throws IOException {
+            if (peeked != NONE) {
+                int c = peeked;
+                peeked = NONE;
+                return c;
+            }
+            return in.read();
+        }
+    }
+
+    public static class MalformedCsvException extends RuntimeException {
+
+        public MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+}
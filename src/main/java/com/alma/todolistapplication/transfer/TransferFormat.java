@@ -0,0 +1,48 @@
+package com.alma.todolistapplication.transfer;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+// Formats for exporting and importing a list; both are one item per record, so they are written and read incrementally
+public enum TransferFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    TransferFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // By name or file extension, as in ?format=csv
+    public static TransferFormat fromName(String name) {
+        for (TransferFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name) || format.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format: " + name);
+    }
+
+    // Ignores parameters such as charset
+    public static TransferFormat fromMediaType(MediaType mediaType) {
+        for (TransferFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+    }
+}
@@ -0,0 +1,31 @@
+package com.alma.todolistapplication.webcontroller;
+
+import com.alma.todolistapplication.security.AuthTokenService;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exchanges HTTP Basic credentials for a bearer token, so API clients pay for the password
+ * hash once per token instead of on every call.
+ */
+@RestController
+public class AuthApiController {
+
+    public record TokenResponse(String token, long expiresIn) {
+    }
+
+    private final AuthTokenService authTokenService;
+
+    @Autowired
+    public AuthApiController(AuthTokenService authTokenService) {
+        this.authTokenService = authTokenService;
+    }
+
+    @PostMapping("/api/token")
+    public TokenResponse issueToken(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return new TokenResponse(authTokenService.issue(currentUser), authTokenService.getTtl().toSeconds());
+    }
+}
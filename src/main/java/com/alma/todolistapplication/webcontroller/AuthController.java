@@ -1,11 +1,15 @@
 package com.alma.todolistapplication.webcontroller;
 
 import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.security.PasswordHashingBusyException;
 import com.alma.todolistapplication.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -81,7 +85,8 @@ public class AuthController {
     public String performRegistration(@Valid @ModelAttribute("user") User user,
                                       BindingResult result,
                                       Model model, // For adding errors back to the registration page
-                                      RedirectAttributes redirectAttributes) { // For success messages on redirect
+                                      RedirectAttributes redirectAttributes, // For success messages on redirect
+                                      HttpServletResponse response) {
         if (isAuthenticated()) {
             return "redirect:/";
         }
@@ -104,6 +109,13 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("registrationSuccess", "Registration successful! Please log in.");
             return "redirect:/login?registered=true"; // Redirect to login page with a success indicator
 
+        } catch (PasswordHashingBusyException e) {
+            // Every password-hashing thread is taken: the form comes back as it was, with a 429 to retry shortly
+            logger.warn("Registration turned away: {}", e.getMessage());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            model.addAttribute("registrationError", "We're very busy right now. Please try again in a moment.");
+            return "register";
         } catch (IllegalArgumentException e) {
             // This catches exceptions from userService.registerNewUser() like "Username already exists"
             logger.warn("Registration attempt failed: {}", e.getMessage());
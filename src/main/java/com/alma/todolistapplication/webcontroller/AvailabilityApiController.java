@@ -0,0 +1,64 @@
+package com.alma.todolistapplication.webcontroller;
+
+import com.alma.todolistapplication.availability.UserAvailabilityIndex;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Lets the registration form say whether a username or email is free while it is being typed,
+ * instead of after a full POST: {@code GET /api/availability?username=..&email=..} with either or
+ * both. Open to anonymous callers, and answered mostly from {@link UserAvailabilityIndex} without a
+ * query. That makes it a cheap way to learn whether an account exists for an email, which the
+ * registration form only tells at the price of a password hash, so each call costs the client IP a
+ * token ({@link com.alma.todolistapplication.security.LoginRateLimitFilter}).
+ */
+@RestController
+public class AvailabilityApiController {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Only what was asked about
+    public record AvailabilityResponse(Boolean usernameAvailable, Boolean emailAvailable) {
+    }
+
+    // The column sizes: anything longer can't be taken, and can't be registered either
+    private static final int MAX_USERNAME_LENGTH = 50;
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    private final UserAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    public AvailabilityApiController(UserAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    @GetMapping("/api/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(value = "username", required = false) String username,
+                                               @RequestParam(value = "email", required = false) String email) {
+        if (isBlank(username) && isBlank(email)) {
+            return badRequest("username or email is required");
+        }
+        if (!isBlank(username) && username.length() > MAX_USERNAME_LENGTH) {
+            return badRequest("username must be at most " + MAX_USERNAME_LENGTH + " characters");
+        }
+        if (!isBlank(email) && email.length() > MAX_EMAIL_LENGTH) {
+            return badRequest("email must be at most " + MAX_EMAIL_LENGTH + " characters");
+        }
+        return ResponseEntity.ok(new AvailabilityResponse(
+                isBlank(username) ? null : availabilityIndex.isUsernameAvailable(username),
+                isBlank(email) ? null : availabilityIndex.isEmailAvailable(email)));
+    }
+
+    // Written here rather than thrown: a thrown status goes through /error, which anonymous callers can't reach
+    private static ResponseEntity<ProblemDetail> badRequest(String detail) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail)).build();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,29 @@
+package com.alma.todolistapplication.webcontroller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * No database connection to be had (pool exhausted, {@code BoundedDataSource} limit reached, database
+ * down): answer 503 with a short Retry-After instead of a 500, for pages and API alike.
+ */
+@ControllerAdvice
+public class DatabaseBusyAdvice {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBusyAdvice.class);
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleDatabaseBusy(RuntimeException e) {
+        logger.warn("No database connection available: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("The service is busy, please try again shortly.");
+    }
+}
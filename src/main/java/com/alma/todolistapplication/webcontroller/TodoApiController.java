@@ -0,0 +1,300 @@
+package com.alma.todolistapplication.webcontroller;
+
+import com.alma.todolistapplication.dto.BulkCreateRequest;
+import com.alma.todolistapplication.dto.BulkIdsRequest;
+import com.alma.todolistapplication.dto.BulkJobDto;
+import com.alma.todolistapplication.dto.BulkResult;
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoImportResult;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.dto.TodoItemPageDto;
+import com.alma.todolistapplication.dto.TodoSearchResultDto;
+import com.alma.todolistapplication.job.BulkJobRunner;
+import com.alma.todolistapplication.model.BulkJob;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.service.BulkJobService;
+import com.alma.todolistapplication.service.TodoArchiveService;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.TodoSearchService;
+import com.alma.todolistapplication.service.TodoTransferService;
+import com.alma.todolistapplication.transfer.TransferFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JSON API over {@link TodoItemService} for mobile and script clients.
+ * <p>
+ * Reads carry an ETag derived from the user's list version, which every mutation bumps.
+ * A poll with a matching {@code If-None-Match} gets {@code 304 Not Modified} after a single
+ * primary-key read, without loading any to-do rows.
+ */
+@RestController
+@RequestMapping("/api/todos")
+public class TodoApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoApiController.class);
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final TodoItemService todoItemService;
+    private final TodoSearchService todoSearchService;
+    private final TodoArchiveService todoArchiveService;
+    private final BulkJobService bulkJobService;
+    private final BulkJobRunner bulkJobRunner;
+    private final TodoTransferService todoTransferService;
+
+    @Autowired
+    public TodoApiController(TodoItemService todoItemService, TodoSearchService todoSearchService,
+                             TodoArchiveService todoArchiveService, BulkJobService bulkJobService,
+                             BulkJobRunner bulkJobRunner, TodoTransferService todoTransferService) {
+        this.todoItemService = todoItemService;
+        this.todoSearchService = todoSearchService;
+        this.todoArchiveService = todoArchiveService;
+        this.bulkJobService = bulkJobService;
+        this.bulkJobRunner = bulkJobRunner;
+        this.todoTransferService = todoTransferService;
+    }
+
+    @GetMapping
+    public TodoItemPageDto listTodoItems(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                         @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                         WebRequest webRequest) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        TodoCursor position = parseCursor(cursor);
+        if (notModified(currentUser, webRequest)) {
+            return null; // 304, headers already set
+        }
+        return TodoItemPageDto.from(todoItemService.getTodoItemPageForUser(currentUser.getId(), position, size));
+    }
+
+    @GetMapping("/search")
+    public TodoSearchResultDto searchTodoItems(@RequestParam("q") String query,
+                                               @RequestParam(value = "page", defaultValue = "0") int page,
+                                               @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                               @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                               WebRequest webRequest) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0 || page > TodoSearchService.MAX_PAGE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be between 0 and " + TodoSearchService.MAX_PAGE);
+        }
+        // Hits only change when the list does, so the list ETag holds for search results too
+        if (notModified(currentUser, webRequest)) {
+            return null;
+        }
+        return TodoSearchResultDto.from(todoSearchService.searchTodoItemsForUser(currentUser.getId(), query, page, size));
+    }
+
+    @GetMapping("/{id}")
+    public TodoItemDto getTodoItem(@PathVariable("id") Long id,
+                                   @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                   WebRequest webRequest) {
+        if (notModified(currentUser, webRequest)) {
+            return null;
+        }
+        return todoItemService.getTodoItemByIdForUser(id, currentUser.getId())
+                .map(TodoItemDto::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "To-do item not found: " + id));
+    }
+
+    @PostMapping
+    public ResponseEntity<TodoItemDto> createTodoItem(@Valid @RequestBody CreateTodoRequest request,
+                                                      @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        logger.info("User {} adding new to-do item via API", currentUser.getUsername());
+        TodoItem created = todoItemService.createTodoItem(request.description(), request.dueDate(), currentUser.getId());
+        return ResponseEntity
+                .created(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(created.getId()).toUri())
+                .body(TodoItemDto.from(created));
+    }
+
+    // With ?completed= the client says which state it wants, like the web form: one owner-scoped UPDATE, harmless to
+    // repeat, answered 204 without reading the item back. Without it the item is flipped and returned, which costs a read.
+    @PostMapping("/{id}/toggle")
+    public ResponseEntity<TodoItemDto> toggleTodoItemComplete(@PathVariable("id") Long id,
+                                                              @RequestParam(value = "completed", required = false) Boolean completed,
+                                                              @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        if (completed != null) {
+            todoItemService.setCompleted(id, currentUser.getId(), completed);
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(TodoItemDto.from(todoItemService.toggleComplete(id, currentUser.getId())));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteTodoItem(@PathVariable("id") Long id,
+                               @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        todoItemService.deleteTodoItem(id, currentUser.getId());
+    }
+
+    // --- Multi-item operations: one request and a handful of statements instead of one round trip per item ---
+
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TodoItemDto> createTodoItems(@Valid @RequestBody BulkCreateRequest request,
+                                             @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        logger.info("User {} adding {} to-do items via API", currentUser.getUsername(), request.items().size());
+        return todoItemService.createTodoItems(request.items(), currentUser.getId()).stream()
+                .map(TodoItemDto::from)
+                .toList();
+    }
+
+    @PostMapping("/bulk/toggle")
+    public BulkResult toggleTodoItemsComplete(@Valid @RequestBody BulkIdsRequest request,
+                                              @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return new BulkResult(todoItemService.toggleComplete(request.ids(), currentUser.getId()));
+    }
+
+    @PostMapping("/bulk/delete")
+    public BulkResult deleteTodoItems(@Valid @RequestBody BulkIdsRequest request,
+                                      @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return new BulkResult(todoItemService.deleteTodoItems(request.ids(), currentUser.getId()));
+    }
+
+    // --- Whole-list operations: accepted at once and run in chunks; poll the job for progress ---
+
+    @PostMapping("/bulk/complete-all")
+    public ResponseEntity<BulkJobDto> markAllTodoItemsComplete(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return startBulkJob(BulkJob.Type.MARK_ALL_COMPLETED, currentUser);
+    }
+
+    @PostMapping("/bulk/clear-completed")
+    public ResponseEntity<BulkJobDto> clearCompletedTodoItems(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return startBulkJob(BulkJob.Type.DELETE_COMPLETED, currentUser);
+    }
+
+    @GetMapping("/jobs/{id}")
+    public BulkJobDto getBulkJob(@PathVariable("id") Long id, @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return bulkJobService.getJobForUser(id, currentUser.getId())
+                .map(BulkJobDto::from)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found: " + id));
+    }
+
+    private ResponseEntity<BulkJobDto> startBulkJob(BulkJob.Type type, AuthenticatedUser currentUser) {
+        logger.info("User {} starting {} via API", currentUser.getUsername(), type);
+        BulkJob job = bulkJobService.submit(currentUser.getId(), type);
+        bulkJobRunner.start(job.getId());
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/todos/jobs/{id}").buildAndExpand(job.getId()).toUri())
+                .body(BulkJobDto.from(job));
+    }
+
+    // --- Archive: completed items moved out of the live list by TodoArchivalJob ---
+
+    @GetMapping("/archive")
+    public TodoItemPageDto listArchivedTodoItems(@RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam(value = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                                 @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                                 WebRequest webRequest) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        TodoCursor position = parseCursor(cursor);
+        // Archiving and restoring both bump the list version, so the list ETag covers the archive too
+        if (notModified(currentUser, webRequest)) {
+            return null;
+        }
+        return TodoItemPageDto.from(todoArchiveService.getArchivedItemPageForUser(currentUser.getId(), position, size));
+    }
+
+    @PostMapping("/archive/restore")
+    public BulkResult restoreTodoItems(@Valid @RequestBody BulkIdsRequest request,
+                                       @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        logger.info("User {} restoring {} archived to-do items via API", currentUser.getUsername(), request.ids().size());
+        return new BulkResult(todoArchiveService.restoreItems(request.ids(), currentUser.getId()));
+    }
+
+    // --- Export / import of the whole list (NDJSON or CSV), streamed: neither side is ever held in memory ---
+
+    @GetMapping("/export")
+    public void exportTodoItems(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                HttpServletResponse response) throws IOException {
+        TransferFormat transferFormat = parseFormat(format);
+        response.setContentType(transferFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("todos-" + LocalDate.now() + "." + transferFormat.getExtension())
+                .build().toString());
+        todoTransferService.exportTodoItems(currentUser.getId(), transferFormat, response.getOutputStream());
+    }
+
+    // The body is the file itself (Content-Type application/x-ndjson or text/csv), not a multipart form
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public TodoImportResult importTodoItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                            @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                            HttpServletRequest request) throws IOException {
+        logger.info("User {} importing to-do items ({}) via API", currentUser.getUsername(), contentType);
+        return todoTransferService.importTodoItems(currentUser.getId(), TransferFormat.fromMediaType(contentType),
+                request.getInputStream());
+    }
+
+    // Same service exceptions as the web controller, mapped to status codes
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleNotFound(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(SecurityException.class)
+    public ResponseEntity<String> handleForbidden(SecurityException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+    }
+
+    // Lost a race with another write to the same item (including a stale @Version); safe to retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    // Reads the version before any rows, so the ETag can only ever be older than the body it goes with
+    private boolean notModified(AuthenticatedUser currentUser, WebRequest webRequest) {
+        Optional<Long> version = todoItemService.getListVersionForUser(currentUser.getId());
+        return version.isPresent() && webRequest.checkNotModified("\"" + currentUser.getId() + "-" + version.get() + "\"");
+    }
+
+    private static TransferFormat parseFormat(String format) {
+        try {
+            return TransferFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static TodoCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
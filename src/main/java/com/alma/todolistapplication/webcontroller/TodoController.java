@@ -1,64 +1,150 @@
 package com.alma.todolistapplication.webcontroller;
 
+import com.alma.todolistapplication.cache.TodoListFragmentCache;
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoCursor;
+import com.alma.todolistapplication.dto.TodoItemPage;
+import com.alma.todolistapplication.dto.TodoSearchResult;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
+import com.alma.todolistapplication.job.BulkJobRunner;
+import com.alma.todolistapplication.model.BulkJob;
 import com.alma.todolistapplication.model.TodoItem;
-import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.service.BulkJobService;
 import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.TodoSearchService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes; // For flash messages
 
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 @Controller
 public class TodoController {
     private static final Logger logger = LoggerFactory.getLogger(TodoController.class);
 
+    // Items rendered per page; "Load more" fetches the next page by cursor
+    static final int PAGE_SIZE = 50;
+
+    private static final String LIVE_REQUEST = "fetch"; // X-Requested-With value sent by the page script
+
     private final TodoItemService todoItemService;
+    private final TodoSearchService todoSearchService;
+    private final TodoListFragmentCache fragmentCache;
+    private final BulkJobService bulkJobService;
+    private final BulkJobRunner bulkJobRunner;
+    private final Duration bulkJobWait;
 
     @Autowired
-    public TodoController(TodoItemService todoItemService) {
+    public TodoController(TodoItemService todoItemService, TodoSearchService todoSearchService,
+                          TodoListFragmentCache fragmentCache, BulkJobService bulkJobService, BulkJobRunner bulkJobRunner,
+                          @Value("${app.bulk-jobs.request-wait:2s}") Duration bulkJobWait) {
         this.todoItemService = todoItemService;
+        this.todoSearchService = todoSearchService;
+        this.fragmentCache = fragmentCache;
+        this.bulkJobService = bulkJobService;
+        this.bulkJobRunner = bulkJobRunner;
+        this.bulkJobWait = bulkJobWait;
     }
 
     @GetMapping("/")
-    public String index(@AuthenticationPrincipal User currentUser, Model model) {
+    public String index(@RequestParam(value = "cursor", required = false) String cursor,
+                        @AuthenticationPrincipal AuthenticatedUser currentUser, Model model,
+                        HttpServletRequest request, HttpServletResponse response) throws Exception {
         if (currentUser == null) {
             return "redirect:/login";
         }
         logger.info("User {} accessing to-do list", currentUser.getUsername());
 
         // Add task counts to the model
-        model.addAttribute("totalTasks", todoItemService.countTotalTasksForUser(currentUser));
-        model.addAttribute("activeTasks", todoItemService.countActiveTasksForUser(currentUser));
-        model.addAttribute("completedTasks", todoItemService.countCompletedTasksForUser(currentUser));
+        addTaskCounts(model, currentUser);
 
         // Ensure "newTodo" is always in the model for the form
         if (!model.containsAttribute("newTodo")) {
             model.addAttribute("newTodo", new TodoItem());
         }
-        model.addAttribute("todos", todoItemService.getTodoItemsForUser(currentUser));
+        TodoCursor position = parseCursor(cursor);
+        Long listVersion = (Long) model.getAttribute("listVersion");
+        if (position == null && listVersion != null && fragmentCache.isEnabled()) {
+            // First page of an unchanged list: the rows come pre-rendered, the template inserts them as they are
+            TodoListFragmentCache.RenderedPage page = fragmentCache.getFirstPage(currentUser.getId(), listVersion, request, response,
+                    () -> todoItemService.getTodoItemPageForUser(currentUser.getId(), null, PAGE_SIZE));
+            model.addAttribute("todoItemsHtml", page.html());
+            model.addAttribute("nextCursor", page.nextCursor());
+            model.addAttribute("hasTodos", page.hasItems());
+        } else {
+            addTodoPage(model, currentUser, position);
+        }
         model.addAttribute("username", currentUser.getUsername());
         return "index";
     }
 
+    // "Load more": renders only the <li> rows of the next page, the cursor for the page after it goes in a header
+    @GetMapping("/todos/more")
+    public String loadMoreTodoItems(@RequestParam("cursor") String cursor,
+                                    @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                    Model model, HttpServletResponse response) {
+        if (currentUser == null) return "redirect:/login";
+        TodoCursor position;
+        try {
+            position = TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            // Restarting from the top here would append duplicates to the page, so reject instead
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        TodoItemPage page = addTodoPage(model, currentUser, position);
+        if (page.hasNext()) {
+            response.setHeader("X-Next-Cursor", page.nextCursor().encode());
+        }
+        return "index :: todo-items";
+    }
+
+    @GetMapping("/search")
+    public String searchTodoItems(@RequestParam(value = "q", required = false) String query,
+                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                  @AuthenticationPrincipal AuthenticatedUser currentUser, Model model) {
+        if (currentUser == null) return "redirect:/login";
+        logger.info("User {} searching to-do items for '{}'", currentUser.getUsername(), query);
+        // Out-of-range page numbers in a hand-edited URL just land on the nearest valid page
+        int boundedPage = Math.max(0, Math.min(page, TodoSearchService.MAX_PAGE));
+        TodoSearchResult result = todoSearchService.searchTodoItemsForUser(currentUser.getId(), query, boundedPage, PAGE_SIZE);
+        model.addAttribute("search", result);
+        model.addAttribute("todos", result.items()); // Rows are rendered by the index "todo-items" fragment
+        model.addAttribute("username", currentUser.getUsername());
+        return "search";
+    }
+
     @PostMapping("/add")
     public String addTodoItem(@Valid @ModelAttribute("newTodo") TodoItem newTodo,
                               BindingResult result,
-                              @AuthenticationPrincipal User currentUser, Model model) {
+                              @AuthenticationPrincipal AuthenticatedUser currentUser, Model model,
+                              HttpServletRequest request, HttpServletResponse response) {
         if (currentUser == null) return "redirect:/login";
 
         if (result.hasErrors()) { // Catches @NotBlank etc. from TodoItem validation
             logger.warn("Add to-do item form has errors for user {}: {}", currentUser.getUsername(), result.getAllErrors());
+            if (isLiveRequest(request)) {
+                return respond(request, response, HttpStatus.BAD_REQUEST); // The page resubmits normally to show the messages
+            }
             // Re-populate necessary model attributes for returning to the index page with errors
-            model.addAttribute("totalTasks", todoItemService.countTotalTasksForUser(currentUser));
-            model.addAttribute("activeTasks", todoItemService.countActiveTasksForUser(currentUser));
-            model.addAttribute("completedTasks", todoItemService.countCompletedTasksForUser(currentUser));
-            model.addAttribute("todos", todoItemService.getTodoItemsForUser(currentUser));
+            addTaskCounts(model, currentUser);
+            addTodoPage(model, currentUser, null);
             model.addAttribute("username", currentUser.getUsername());
             // 'newTodo' with its errors is already in the model due to @ModelAttribute
             return "index";
@@ -67,61 +153,144 @@ public class TodoController {
         logger.info("User {} adding new to-do item: '{}', Due: {}",
                 currentUser.getUsername(), newTodo.getDescription(), newTodo.getDueDate());
 
-        todoItemService.createTodoItem(newTodo.getDescription(), newTodo.getDueDate(), currentUser);
-        return "redirect:/";
+        todoItemService.createTodoItem(newTodo.getDescription(), newTodo.getDueDate(), currentUser.getId());
+        return respond(request, response, HttpStatus.NO_CONTENT);
     }
 
     @PostMapping("/toggle/{id}")
     public String toggleTodoItemComplete(@PathVariable("id") Long id,
-                                         @AuthenticationPrincipal User currentUser,
-                                         RedirectAttributes redirectAttributes) { // Added RedirectAttributes
+                                         @RequestParam(value = "completed", required = false) Boolean completed,
+                                         @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                         RedirectAttributes redirectAttributes, // Added RedirectAttributes
+                                         HttpServletRequest request, HttpServletResponse response) {
         if (currentUser == null) return "redirect:/login";
         logger.info("User {} toggling completion for to-do item ID: {}", currentUser.getUsername(), id);
         try {
-            todoItemService.toggleComplete(id, currentUser);
+            // The list form sends the state its button shows, so a double submit doesn't flip the item back
+            if (completed != null) {
+                todoItemService.setCompleted(id, currentUser.getId(), completed);
+            } else {
+                todoItemService.toggleComplete(id, currentUser.getId());
+            }
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change for user {} toggling item {}: {}", currentUser.getUsername(), id, e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", "The item was changed elsewhere, please try again.");
+            return respond(request, response, HttpStatus.CONFLICT);
         } catch (SecurityException e) {
             logger.warn("SecurityException for user {} trying to toggle item {}: {}", currentUser.getUsername(), id, e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "You are not authorized to perform that action."); // Flash attribute
-            return "redirect:/"; // Redirect to index, error will be displayed
+            return respond(request, response, HttpStatus.FORBIDDEN); // Redirect to index, error will be displayed
         } catch (IllegalArgumentException e) {
             logger.warn("IllegalArgumentException for user {} trying to toggle item {}: {}", currentUser.getUsername(), id, e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "Item not found or invalid argument."); // Flash attribute
-            return "redirect:/";
+            return respond(request, response, HttpStatus.NOT_FOUND);
         }
-        return "redirect:/";
+        return respond(request, response, HttpStatus.NO_CONTENT);
     }
 
     @PostMapping("/delete/{id}")
     public String deleteTodoItem(@PathVariable("id") Long id,
-                                 @AuthenticationPrincipal User currentUser,
-                                 RedirectAttributes redirectAttributes) { // Added RedirectAttributes
+                                 @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                 RedirectAttributes redirectAttributes, // Added RedirectAttributes
+                                 HttpServletRequest request, HttpServletResponse response) {
         if (currentUser == null) return "redirect:/login";
         logger.info("User {} deleting to-do item ID: {}", currentUser.getUsername(), id);
         try {
-            todoItemService.deleteTodoItem(id, currentUser);
+            todoItemService.deleteTodoItem(id, currentUser.getId());
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Concurrent change for user {} deleting item {}: {}", currentUser.getUsername(), id, e.getMessage());
+            redirectAttributes.addFlashAttribute("errorMessage", "The item was changed elsewhere, please try again.");
+            return respond(request, response, HttpStatus.CONFLICT);
         } catch (SecurityException e) {
             logger.warn("SecurityException for user {} trying to delete item {}: {}", currentUser.getUsername(), id, e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "You are not authorized to perform that action.");
-            return "redirect:/";
+            return respond(request, response, HttpStatus.FORBIDDEN);
         } catch (IllegalArgumentException e) {
             logger.warn("IllegalArgumentException for user {} trying to delete item {}: {}", currentUser.getUsername(), id, e.getMessage());
             redirectAttributes.addFlashAttribute("errorMessage", "Item not found or invalid argument.");
-            return "redirect:/";
+            return respond(request, response, HttpStatus.NOT_FOUND);
         }
-        return "redirect:/";
+        return respond(request, response, HttpStatus.NO_CONTENT);
     }
 
     // --- NEW CONTROLLER METHOD FOR CLEARING COMPLETED TASKS ---
     @PostMapping("/clear-completed")
-    public String clearCompletedTasks(@AuthenticationPrincipal User currentUser, RedirectAttributes redirectAttributes) {
+    public String clearCompletedTasks(@AuthenticationPrincipal AuthenticatedUser currentUser, RedirectAttributes redirectAttributes) {
         if (currentUser == null) return "redirect:/login";
+        runBulkJob(BulkJob.Type.DELETE_COMPLETED, currentUser, redirectAttributes,
+                "All completed tasks cleared!", "Clearing completed tasks, this may take a moment.", "Could not clear completed tasks.");
+        return "redirect:/";
+    }
+
+    @PostMapping("/mark-all-completed")
+    public String markAllTasksCompleted(@AuthenticationPrincipal AuthenticatedUser currentUser, RedirectAttributes redirectAttributes) {
+        if (currentUser == null) return "redirect:/login";
+        runBulkJob(BulkJob.Type.MARK_ALL_COMPLETED, currentUser, redirectAttributes,
+                "All tasks marked complete!", "Marking all tasks complete, this may take a moment.", "Could not mark all tasks complete.");
+        return "redirect:/";
+    }
+
+    // Waits a little for the job: a short list is done by then and the redirect shows the result, a long one
+    // carries on in the background and open pages follow it chunk by chunk over /events
+    private void runBulkJob(BulkJob.Type type, AuthenticatedUser currentUser, RedirectAttributes redirectAttributes,
+                            String doneMessage, String runningMessage, String failedMessage) {
         try {
-            todoItemService.deleteAllCompletedTasksForUser(currentUser);
-            redirectAttributes.addFlashAttribute("successMessage", "All completed tasks cleared!");
-        } catch (Exception e) {
-            logger.error("Error clearing completed tasks for user {}: {}", currentUser.getUsername(), e.getMessage(), e);
-            redirectAttributes.addFlashAttribute("errorMessage", "Could not clear completed tasks.");
+            BulkJob job = bulkJobService.submit(currentUser.getId(), type);
+            bulkJobRunner.start(job.getId()).get(bulkJobWait.toMillis(), TimeUnit.MILLISECONDS);
+            redirectAttributes.addFlashAttribute("successMessage", doneMessage);
+        } catch (TimeoutException e) {
+            redirectAttributes.addFlashAttribute("successMessage", runningMessage);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            redirectAttributes.addFlashAttribute("successMessage", runningMessage);
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("{} failed for user {}: {}", type, currentUser.getUsername(), e.getMessage(), e);
+            redirectAttributes.addFlashAttribute("errorMessage", failedMessage);
+        }
+    }
+
+    // The page sends its form posts with fetch while it is subscribed to /events (see index.html). Those get a bare
+    // status instead of a redirect to a re-rendered list: the change reaches the page, like every other open tab, as a delta.
+    private static boolean isLiveRequest(HttpServletRequest request) {
+        return LIVE_REQUEST.equals(request.getHeader("X-Requested-With"));
+    }
+
+    private static String respond(HttpServletRequest request, HttpServletResponse response, HttpStatus status) {
+        if (!isLiveRequest(request)) {
+            return "redirect:/";
+        }
+        response.setStatus(status.value());
+        return null; // Response already complete
+    }
+
+    private void addTaskCounts(Model model, AuthenticatedUser currentUser) {
+        // The version the counts were read at, so the page's /events subscription picks up exactly after them
+        VersionedTaskCounts versioned = todoItemService.getVersionedTaskCountsForUser(currentUser.getId());
+        model.addAttribute("listVersion", versioned.listVersion());
+        TaskCounts counts = versioned.counts();
+        model.addAttribute("totalTasks", counts.total());
+        model.addAttribute("activeTasks", counts.active());
+        model.addAttribute("completedTasks", counts.completed());
+    }
+
+    private TodoItemPage addTodoPage(Model model, AuthenticatedUser currentUser, TodoCursor cursor) {
+        TodoItemPage page = todoItemService.getTodoItemPageForUser(currentUser.getId(), cursor, PAGE_SIZE);
+        model.addAttribute("todos", page.items());
+        model.addAttribute("nextCursor", page.hasNext() ? page.nextCursor().encode() : null);
+        model.addAttribute("hasTodos", !page.items().isEmpty());
+        return page;
+    }
+
+    // A stale or tampered cursor just restarts the list from the top
+    private TodoCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid list cursor '{}': {}", cursor, e.getMessage());
+            return null;
         }
-        return "redirect:/";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package com.alma.todolistapplication.webcontroller;
+
+import com.alma.todolistapplication.live.TodoListBroadcaster;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live updates for the to-do page: a Server-Sent Events stream of the current user's list changes
+ * (see {@link TodoListBroadcaster}).
+ */
+@RestController
+public class TodoEventsController {
+
+    private final TodoListBroadcaster broadcaster;
+
+    @Autowired
+    public TodoEventsController(TodoListBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    // "since" is the list version the page was rendered at; EventSource sends the last one it saw as Last-Event-ID on reconnect
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodoListChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                            @RequestParam(value = "since", required = false) Long since,
+                                            @AuthenticationPrincipal AuthenticatedUser currentUser,
+                                            HttpServletResponse response) {
+        response.setHeader("X-Accel-Buffering", "no"); // Keep an nginx in front from buffering the stream
+        return broadcaster.subscribe(currentUser.getId(), lastEventId != null ? lastEventId : since);
+    }
+}
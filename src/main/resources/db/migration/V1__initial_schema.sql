@@ -0,0 +1,90 @@
+-- The schema, for MySQL/MariaDB. The application before the migrations let ddl-auto=update create users and todo_items
+-- (todo_items with an AUTO_INCREMENT id and no version column) and nothing else. Such a database is baselined at
+-- version 0 (spring.flyway.baseline-on-migrate) and runs this script too, so those two tables are only created where
+-- missing and everything after them is added. Constraint names are the ones Hibernate generated.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(255) NOT NULL,
+    enabled  BIT          NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(50)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS todo_items (
+    id           BIGINT       NOT NULL,
+    completed    BIT          NOT NULL,
+    completed_at DATETIME(6),
+    created_at   DATETIME(6)  NOT NULL,
+    description  VARCHAR(255) NOT NULL,
+    due_date     DATETIME(6),
+    user_id      BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKav4ha4dkkk09oss5h6qdtnggv FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+-- Optimistic locking; existing rows start at 0
+ALTER TABLE todo_items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_todo_items_user_created ON todo_items (user_id, created_at, id);
+CREATE INDEX idx_todo_items_due_date ON todo_items (due_date);
+CREATE INDEX idx_todo_items_completed_at ON todo_items (completed, completed_at);
+-- Search (see FullTextIndexInitializer, which only creates it on databases that predate this migration)
+CREATE FULLTEXT INDEX ft_todo_items_description ON todo_items (description);
+
+-- Hibernate's id blocks for todo_items (allocationSize 50): MySQL has no sequences, so it is a one-row table. V4 moves
+-- it past the ids existing items already have.
+CREATE TABLE todo_items_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+INSERT INTO todo_items_seq VALUES (1);
+
+CREATE TABLE archived_todo_items (
+    id           BIGINT       NOT NULL,
+    archived_at  DATETIME(6)  NOT NULL,
+    completed_at DATETIME(6),
+    created_at   DATETIME(6)  NOT NULL,
+    description  VARCHAR(255) NOT NULL,
+    due_date     DATETIME(6),
+    version      BIGINT       NOT NULL,
+    user_id      BIGINT       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKlurhm8h1xks9ebeolrjg76esw FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_archived_todo_items_user_created ON archived_todo_items (user_id, created_at, id);
+
+CREATE TABLE user_task_stats (
+    user_id         BIGINT NOT NULL,
+    completed_count BIGINT NOT NULL,
+    list_version    BIGINT NOT NULL,
+    total_count     BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
+
+-- Counted once here for existing users, rather than from todo_items on every dashboard until reconciliation creates them
+INSERT INTO user_task_stats (user_id, completed_count, list_version, total_count)
+SELECT u.id, COUNT(CASE WHEN t.completed = 1 THEN 1 END), 0, COUNT(t.id)
+FROM users u LEFT JOIN todo_items t ON t.user_id = u.id
+GROUP BY u.id;
+
+CREATE TABLE bulk_jobs (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT       NOT NULL,
+    type        ENUM ('DELETE_COMPLETED','MARK_ALL_COMPLETED') NOT NULL,
+    status      ENUM ('DONE','FAILED','PENDING','RUNNING') NOT NULL,
+    last_id     BIGINT       NOT NULL,
+    max_id      BIGINT       NOT NULL,
+    processed   BIGINT       NOT NULL,
+    error       VARCHAR(255),
+    created_at  DATETIME(6)  NOT NULL,
+    updated_at  DATETIME(6)  NOT NULL,
+    finished_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_bulk_jobs_user_type_status ON bulk_jobs (user_id, type, status);
+CREATE INDEX idx_bulk_jobs_status_updated ON bulk_jobs (status, updated_at);
@@ -0,0 +1,7 @@
+-- Indexes for the per-user queries the index advisor (app.index-advisor.*) flagged or that read the whole list
+-- through idx_todo_items_user_created and filtered it: completed filters sorted by creation, and due-date sorts and
+-- ranges. Built online so the list stays writable while they are added.
+ALTER TABLE todo_items
+    ADD INDEX idx_todo_items_user_completed_created (user_id, completed, created_at, id),
+    ADD INDEX idx_todo_items_user_due (user_id, due_date),
+    ALGORITHM = INPLACE, LOCK = NONE;
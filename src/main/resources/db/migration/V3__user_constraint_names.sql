@@ -0,0 +1,8 @@
+-- Gives the unique constraints on users readable names in place of the ones Hibernate generated, so registration can
+-- tell a taken username from a taken email by the constraint a failed insert names. Dropped and re-added in one
+-- statement rather than RENAME INDEX, which MariaDB only has from 10.5.
+ALTER TABLE users
+    DROP INDEX UKr43af9ap4edm43mmtq01oddj6,
+    ADD CONSTRAINT uk_users_username UNIQUE (username),
+    DROP INDEX UK6dotkott2kjsp8vw4d0m25fb7,
+    ADD CONSTRAINT uk_users_email UNIQUE (email);
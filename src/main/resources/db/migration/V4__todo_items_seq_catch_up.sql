@@ -0,0 +1,8 @@
+-- Moves Hibernate's id blocks for todo_items past every id already used. A database from before the migrations (see
+-- spring.flyway.baseline-on-migrate) has rows numbered by AUTO_INCREMENT, while V1 starts todo_items_seq at 1; new items
+-- would then be given ids that are taken. Archived items keep their to-do id, so they count too. The extra 51 clears
+-- the block of 50 a pooled generator may already be using.
+UPDATE todo_items_seq
+SET next_val = GREATEST(next_val,
+                        (SELECT COALESCE(MAX(id), 0) + 51 FROM todo_items),
+                        (SELECT COALESCE(MAX(id), 0) + 51 FROM archived_todo_items));
@@ -0,0 +1,10 @@
+-- The row ReplicaLagMonitor stamps with the primary's clock on the primary and reads back from the replica to tell how
+-- far behind it is. The monitor used to create the table itself, so it may already be there.
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    id          INT    NOT NULL,
+    beat_millis BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO replica_heartbeat (id, beat_millis)
+SELECT 1, 0 FROM DUAL WHERE NOT EXISTS (SELECT * FROM replica_heartbeat WHERE id = 1);
@@ -0,0 +1,210 @@
+package com.alma.todolistapplication;
+
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations on an empty database and starts the application on the result with
+ * {@code ddl-auto=validate}, as production does, so a migration that disagrees with the entities
+ * fails here instead of at the next deploy. The other tests let Hibernate create their schema.
+ * <p>
+ * H2 in MySQL mode, with Hibernate's MySQL dialect so ids come from the {@code todo_items_seq} table
+ * the migrations create. The scripts are read from {@code db/migration} as they are, with the two
+ * MySQL-only forms H2 can't parse rewritten first (see {@link H2CompatibleMigrations}).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+class FlywayMigrationsTest {
+
+    private static final String LOCATION = "db/migration";
+
+    @TestConfiguration
+    static class H2CompatibleMigrationsConfig {
+
+        @Bean
+        FlywayConfigurationCustomizer h2CompatibleMigrations() {
+            return configuration -> configuration.resourceProvider(new H2CompatibleMigrations());
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private TodoItemService todoItemService;
+
+    @Test
+    void everyMigrationIsAppliedAndTheEntitiesValidate() throws IOException {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()).extracting(MigrationInfo::getScript)
+                .containsExactlyElementsOf(migrationScripts());
+    }
+
+    @Test
+    void itemsTakeTheirIdsFromTheMigratedSequenceTable() {
+        Long userId = userService.registerNewUser(
+                new User(null, "migrated", "password", "migrated@example.com", true, null)).getId();
+
+        TodoItem item = todoItemService.createTodoItem("First item on the migrated schema", null, userId);
+
+        assertThat(item.getId()).isPositive();
+        assertThat(todoItemService.getTodoItemsForUser(userId)).hasSize(1);
+    }
+
+    private static List<String> migrationScripts() throws IOException {
+        return Arrays.stream(new PathMatchingResourcePatternResolver().getResources("classpath:" + LOCATION + "/V*.sql"))
+                .map(Resource::getFilename)
+                .filter(Objects::nonNull)
+                .sorted((a, b) -> Integer.compare(version(a), version(b)))
+                .toList();
+    }
+
+    private static int version(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    /**
+     * The scripts in {@code db/migration}, with the statements H2 can't parse rewritten: a FULLTEXT
+     * index becomes a plain one, and an ALTER TABLE with several clauses becomes one statement per
+     * clause, without MySQL's ALGORITHM and LOCK options.
+     */
+    static class H2CompatibleMigrations implements ResourceProvider {
+
+        private static final Pattern ALTER_TABLE = Pattern.compile("(?is)^(\\s*ALTER\\s+TABLE\\s+\\w+)\\s+(.*)$");
+        private static final Pattern ALTER_OPTION = Pattern.compile("(?is)^\\s*(ALGORITHM|LOCK)\\s*=.*$");
+
+        @Override
+        public LoadableResource getResource(String name) {
+            return getResources("", new String[]{""}).stream()
+                    .filter(resource -> resource.getFilename().equals(name))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Collection<LoadableResource> getResources(String prefix, String[] suffixes) {
+            try {
+                List<LoadableResource> resources = new ArrayList<>();
+                for (Resource script : new PathMatchingResourcePatternResolver().getResources("classpath:" + LOCATION + "/*.sql")) {
+                    String name = script.getFilename();
+                    if (name != null && name.startsWith(prefix) && Arrays.stream(suffixes).anyMatch(name::endsWith)) {
+                        resources.add(new Script(name, rewrite(script.getContentAsString(StandardCharsets.UTF_8))));
+                    }
+                }
+                return resources;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        static String rewrite(String sql) {
+            StringBuilder rewritten = new StringBuilder();
+            for (String statement : sql.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+                if (statement.isBlank()) {
+                    continue;
+                }
+                Matcher alter = ALTER_TABLE.matcher(statement);
+                if (alter.matches()) {
+                    for (String clause : splitClauses(alter.group(2))) {
+                        if (!ALTER_OPTION.matcher(clause).matches()) {
+                            rewritten.append(alter.group(1)).append(' ').append(clause.strip()).append(";\n");
+                        }
+                    }
+                } else {
+                    rewritten.append(statement.replaceAll("(?i)CREATE\\s+FULLTEXT\\s+INDEX", "CREATE INDEX")).append(";\n");
+                }
+            }
+            return rewritten.toString();
+        }
+
+        // Commas between clauses, not the ones inside a column list
+        private static List<String> splitClauses(String clauses) {
+            List<String> split = new ArrayList<>();
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i < clauses.length(); i++) {
+                char c = clauses.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == ',' && depth == 0) {
+                    split.add(clauses.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            split.add(clauses.substring(start));
+            return split;
+        }
+    }
+
+    private static class Script extends LoadableResource {
+
+        private final String name;
+        private final String sql;
+
+        Script(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        @Override
+        public Reader read() {
+            return new StringReader(sql);
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return LOCATION + "/" + name;
+        }
+
+        @Override
+        public String getAbsolutePathOnDisk() {
+            return getAbsolutePath();
+        }
+
+        @Override
+        public String getFilename() {
+            return name;
+        }
+
+        @Override
+        public String getRelativePath() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.alma.todolistapplication;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import com.alma.todolistapplication.service.TodoItemService;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the migrations from the schema the application had before them, as an existing
+ * production database would: Flyway baselines it at version 0 and V1 onwards bring it up to what
+ * the entities expect ({@code ddl-auto=validate}). {@link FlywayMigrationsTest} starts from an
+ * empty database instead.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:upgrade;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+class FlywayUpgradeTest {
+
+    @TestConfiguration
+    static class PreMigrationDatabaseConfig {
+
+        @Bean
+        FlywayConfigurationCustomizer h2CompatibleMigrations() {
+            return configuration -> configuration.resourceProvider(new FlywayMigrationsTest.H2CompatibleMigrations());
+        }
+
+        // The old schema goes in first, where the migrations will find it
+        @Bean
+        FlywayMigrationStrategy fromPreMigrationSchema() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/pre-migration-schema.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TodoItemService todoItemService;
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Test
+    void theOldSchemaIsBaselinedBeforeTheFirstMigration() {
+        MigrationInfo[] applied = flyway.info().applied();
+
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo("0");
+        assertThat(applied[1].getVersion().getVersion()).isEqualTo("1");
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void existingItemsKeepTheirIdsAndCountsAndNewOnesGetFreshIds() {
+        Long userId = userRepository.findByUsername("early").orElseThrow().getId();
+
+        assertThat(todoItemService.getTodoItemsForUser(userId)).extracting(TodoItemDto::description)
+                .containsExactlyInAnyOrder("Written before the migrations", "Still to do");
+        assertThat(taskStatsService.getCountsForUser(userId)).isEqualTo(TaskCounts.of(2, 1));
+
+        TodoItem item = todoItemService.createTodoItem("First item after the upgrade", null, userId);
+
+        assertThat(item.getId()).isGreaterThan(2L);
+        assertThat(taskStatsService.getCountsForUser(userId)).isEqualTo(TaskCounts.of(3, 1));
+    }
+}
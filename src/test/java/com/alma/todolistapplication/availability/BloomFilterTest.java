@@ -0,0 +1,40 @@
+package com.alma.todolistapplication.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void everythingPutIsFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("u:user-" + i));
+
+        assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain("u:user-" + i));
+    }
+
+    @Test
+    void falsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("u:user-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("u:other-" + i)).count();
+
+        assertThat(falsePositives).isBetween(500L, 1500L); // 1% of 100,000, give or take
+        assertThat(filter.getBitCount()).isBetween(95_000L, 96_000L); // About 9.6 bits per name
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void onlyWhatWasPutIsFound() {
+        BloomFilter filter = new BloomFilter(1, 0.01);
+
+        assertThat(filter.mightContain("u:alice")).isFalse();
+        filter.put("u:alice");
+        assertThat(filter.mightContain("u:alice")).isTrue();
+        assertThat(filter.mightContain("e:alice")).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.security.AuthTokenService;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.security.TokenCookieSecurityContextRepository;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of restoring the logged-in user in each {@code app.security.session-mode}.
+ * <ul>
+ *     <li>{@code session} - {@link HttpSessionSecurityContextRepository} reading the context from an
+ *     in-memory session. This is the best case: with a shared session store (Redis/JDBC) the same
+ *     lookup becomes a network round trip, and without one the load balancer must be sticky.</li>
+ *     <li>{@code stateless} - {@link TokenCookieSecurityContextRepository} parsing the cookie and
+ *     verifying its HMAC-SHA256 signature locally.</li>
+ * </ul>
+ * Run the {@link #main} method after {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthOverheadBenchmark {
+
+    @Param({"session", "stateless"})
+    public String sessionMode;
+
+    private SecurityContextRepository repository;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        AuthenticatedUser user = AuthenticatedUser.of(42L, "alice");
+        request = new MockHttpServletRequest("GET", "/");
+        if ("session".equals(sessionMode)) {
+            repository = new HttpSessionSecurityContextRepository();
+            MockHttpSession session = new MockHttpSession();
+            session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                    new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+            request.setSession(session);
+        } else {
+            String secret = Base64.getEncoder().encodeToString(new byte[32]);
+            AuthTokenService tokenService = new AuthTokenService(secret, Duration.ofHours(8), Duration.ofHours(1));
+            repository = new TokenCookieSecurityContextRepository(tokenService, TokenCookieSecurityContextRepository.DEFAULT_COOKIE_NAME);
+            request.setCookies(new Cookie(TokenCookieSecurityContextRepository.DEFAULT_COOKIE_NAME, tokenService.issue(user)));
+        }
+    }
+
+    @Benchmark
+    public SecurityContext loadContext() {
+        return repository.loadDeferredContext(request).get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthOverheadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
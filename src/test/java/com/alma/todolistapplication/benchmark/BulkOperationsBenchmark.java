@@ -0,0 +1,151 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.TodolistapplicationApplication;
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1,000-item create / toggle / delete: the multi-item service methods against a loop over the
+ * single-item ones (what a client had to do before).
+ * <p>
+ * Boots the application (on a random port) against the in-memory H2 database from
+ * {@code src/test/resources/config/application.properties}. Alongside the time per operation,
+ * the number of JDBC statements Hibernate prepared for each operation is printed at the end of
+ * every iteration. That is the figure that scales with network round trips on a real MySQL server.
+ * <p>
+ * Run with: {@code mvn test-compile} then the {@link #main} method from the IDE, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main BulkOperationsBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkOperationsBenchmark {
+
+    @Param({"1000"})
+    public int items;
+
+    private ConfigurableApplicationContext context;
+    private TodoItemService todoItemService;
+    private Statistics statistics;
+    private Long userId;
+
+    private List<CreateTodoRequest> requests;
+    private List<Long> itemIds; // Fresh items for each toggle/delete invocation
+    private long statementsBefore;
+    private long statementsTotal;
+    private long invocations;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(TodolistapplicationApplication.class)
+                .properties("server.port=0",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "logging.level.root=WARN")
+                .run();
+        todoItemService = context.getBean(TodoItemService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        User user = new User();
+        user.setUsername("bench");
+        user.setPassword("secret1");
+        user.setEmail("bench@example.com");
+        userId = context.getBean(UserService.class).registerNewUser(user).getId();
+
+        requests = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            requests.add(new CreateTodoRequest("Benchmark item " + i, null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void createItems() {
+        itemIds = todoItemService.createTodoItems(requests, userId).stream().map(TodoItem::getId).toList();
+        statementsBefore = statistics.getPrepareStatementCount();
+    }
+
+    @TearDown(Level.Invocation)
+    public void countStatements() {
+        statementsTotal += statistics.getPrepareStatementCount() - statementsBefore;
+        invocations++;
+        todoItemService.deleteTodoItems(itemIds, userId); // Keep the table at one batch of rows for the next invocation
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        System.out.printf("%n%d statements per operation%n", statementsTotal / Math.max(1, invocations));
+        statementsTotal = 0;
+        invocations = 0;
+    }
+
+    @Benchmark
+    public Object createPerItem() {
+        List<TodoItem> created = new ArrayList<>(items);
+        for (CreateTodoRequest request : requests) {
+            created.add(todoItemService.createTodoItem(request.description(), request.dueDate(), userId));
+        }
+        return created;
+    }
+
+    @Benchmark
+    public Object createBulk() {
+        return todoItemService.createTodoItems(requests, userId);
+    }
+
+    @Benchmark
+    public int togglePerItem() {
+        for (Long id : itemIds) {
+            todoItemService.toggleComplete(id, userId);
+        }
+        return itemIds.size();
+    }
+
+    @Benchmark
+    public int toggleBulk() {
+        return todoItemService.toggleComplete(itemIds, userId);
+    }
+
+    @Benchmark
+    public int deletePerItem() {
+        for (Long id : itemIds) {
+            todoItemService.deleteTodoItem(id, userId);
+        }
+        return itemIds.size();
+    }
+
+    @Benchmark
+    public int deleteBulk() {
+        return todoItemService.deleteTodoItems(itemIds, userId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BulkOperationsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,199 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.TodolistapplicationApplication;
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.job.BulkJobRunner;
+import com.alma.todolistapplication.model.BulkJob;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.security.UserCredentials;
+import com.alma.todolistapplication.service.BulkJobService;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The per-request hot paths against a user with {@code items} to-do items (10, 1k, 50k): the list
+ * read, the three counters, single-item create and toggle, clearing completed items, the login
+ * lookup and a full {@code GET /} (controller, counts, first page and {@code index.html}).
+ * <p>
+ * Boots the application against the in-memory H2 database from
+ * {@code src/test/resources/config/application.properties} and seeds one user: a third of the items
+ * completed, every fifth with a due date. The list and credentials caches are off by default so
+ * the database path is what gets measured; {@code -p caches=true} shows the cached one.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark verify}, or {@code mvn test-compile} then
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main HotPathBenchmark}
+ * (add e.g. {@code -p items=1000} to run one size).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotPathBenchmark {
+
+    private static final String USERNAME = "bench";
+    private static final int SEED_CHUNK = 1000;
+
+    @Param({"10", "1000", "50000"})
+    public int items;
+
+    @Param({"false"})
+    public boolean caches;
+
+    private ConfigurableApplicationContext context;
+    private TodoItemService todoItemService;
+    private BulkJobService bulkJobService;
+    private BulkJobRunner bulkJobRunner;
+    private UserDetailsService userDetailsService;
+    private MockMvc mockMvc;
+    private AuthenticatedUser principal;
+    private Long userId;
+    private List<Long> itemIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // As arguments: default properties would lose to application.properties
+        context = new SpringApplicationBuilder(TodolistapplicationApplication.class)
+                .run("--server.port=0",
+                        "--app.cache.todo-lists.enabled=" + caches,
+                        "--app.security.credentials-cache.enabled=" + caches,
+                        "--app.reminders.enabled=false",
+                        "--logging.level.root=WARN");
+        todoItemService = context.getBean(TodoItemService.class);
+        bulkJobService = context.getBean(BulkJobService.class);
+        bulkJobRunner = context.getBean(BulkJobRunner.class);
+        userDetailsService = context.getBean(UserDetailsService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("secret1");
+        user.setEmail("bench@example.com");
+        User registered = context.getBean(UserService.class).registerNewUser(user);
+        userId = registered.getId();
+        principal = AuthenticatedUser.of(new UserCredentials(userId, USERNAME, registered.getPassword(), true));
+        seed();
+    }
+
+    // Through the bulk service methods, so the counters and list version are what the application would have
+    private void seed() {
+        itemIds = new ArrayList<>(items);
+        LocalDateTime now = LocalDateTime.now();
+        for (int start = 0; start < items; start += SEED_CHUNK) {
+            List<CreateTodoRequest> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = start; i < Math.min(items, start + SEED_CHUNK); i++) {
+                chunk.add(new CreateTodoRequest("Benchmark item " + i + " for the weekly review",
+                        i % 5 == 0 ? now.plusDays(i % 30 + 1) : null));
+            }
+            List<Long> created = todoItemService.createTodoItems(chunk, userId).stream().map(TodoItem::getId).toList();
+            todoItemService.toggleComplete(created.subList(0, created.size() / 3), userId);
+            itemIds.addAll(created);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    // A few items completed since the last clear, so every invocation has something to delete
+    @State(Scope.Benchmark)
+    public static class NewlyCompleted {
+
+        @Setup(Level.Invocation)
+        public void completeSome(HotPathBenchmark benchmark) {
+            List<CreateTodoRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                requests.add(new CreateTodoRequest("Done " + i, null));
+            }
+            List<Long> ids = benchmark.todoItemService.createTodoItems(requests, benchmark.userId).stream()
+                    .map(TodoItem::getId)
+                    .toList();
+            benchmark.todoItemService.toggleComplete(ids, benchmark.userId);
+        }
+    }
+
+    @Benchmark
+    public List<TodoItemDto> getTodoItemsForUser() {
+        return todoItemService.getTodoItemsForUser(userId);
+    }
+
+    @Benchmark
+    public long countTotalTasksForUser() {
+        return todoItemService.countTotalTasksForUser(userId);
+    }
+
+    @Benchmark
+    public long countActiveTasksForUser() {
+        return todoItemService.countActiveTasksForUser(userId);
+    }
+
+    @Benchmark
+    public long countCompletedTasksForUser() {
+        return todoItemService.countCompletedTasksForUser(userId);
+    }
+
+    @Benchmark
+    public TodoItem createTodoItem() {
+        return todoItemService.createTodoItem("Benchmark item", null, userId);
+    }
+
+    @Benchmark
+    public TodoItem toggleComplete() {
+        return todoItemService.toggleComplete(itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size())), userId);
+    }
+
+    // Submit to done: the chunks run on the job pool, this waits for the last one
+    @Benchmark
+    public BulkJob clearCompleted(NewlyCompleted newlyCompleted) {
+        return bulkJobRunner.start(bulkJobService.submit(userId, BulkJob.Type.DELETE_COMPLETED).getId()).join();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public String renderIndex() throws Exception {
+        MvcResult result = mockMvc.perform(get("/").with(user(principal))).andReturn();
+        if (result.getResponse().getStatus() != 200) {
+            throw new IllegalStateException("GET / returned " + result.getResponse().getStatus());
+        }
+        return result.getResponse().getContentAsString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HotPathBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
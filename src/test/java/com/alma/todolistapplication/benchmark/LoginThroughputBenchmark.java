@@ -0,0 +1,109 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.security.UserCredentialsCache;
+import com.alma.todolistapplication.security.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login throughput with and without {@link UserCredentialsCache}.
+ * <p>
+ * {@code findByUsername} is stubbed with a fixed delay standing in for a MySQL round trip under load
+ * ({@code dbLatencyMicros}); 8 threads log in as one of {@code users} accounts at random.
+ * {@code loadUser} isolates the lookup the cache removes; {@code authenticate} is the whole
+ * username/password check with BCrypt at cost 4 so the hash doesn't hide the difference
+ * (production cost 10 is ~60x slower per attempt).
+ * <p>
+ * Run with: {@code mvn test-compile} then the {@link #main} method from the IDE, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main LoginThroughputBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LoginThroughputBenchmark {
+
+    private static final String PASSWORD = "secret-password";
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param({"500"})
+    public long dbLatencyMicros;
+
+    @Param({"1000"})
+    public int users;
+
+    private UserDetailsServiceImpl userDetailsService;
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername(anyString())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+            String username = invocation.getArgument(0);
+            User user = new User();
+            user.setId(Long.valueOf(username.substring("user".length())));
+            user.setUsername(username);
+            user.setPassword(passwordHash);
+            user.setEnabled(true);
+            return Optional.of(user);
+        });
+
+        UserCredentialsCache cache = new UserCredentialsCache(cacheEnabled, 10_000, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+        userDetailsService = new UserDetailsServiceImpl(userRepository, cache, false);
+        authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+    }
+
+    @Benchmark
+    public UserDetails loadUser() {
+        return userDetailsService.loadUserByUsername(randomUsername());
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(randomUsername(), PASSWORD));
+    }
+
+    private String randomUsername() {
+        return "user" + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoginThroughputBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
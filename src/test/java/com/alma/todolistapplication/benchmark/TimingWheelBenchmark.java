@@ -0,0 +1,89 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.reminder.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rescheduling one reminder (what an edit to a due date costs) with {@code pending} reminders held,
+ * in {@link HierarchicalTimingWheel} versus a priority queue, the usual alternative
+ * ({@code ScheduledThreadPoolExecutor} and {@code DelayQueue} are heaps too).
+ * <p>
+ * Deadlines are spread over a week at one-second ticks, as {@code ReminderScheduler} uses it. The heap
+ * pays O(log n) to insert and O(n) to find and remove the old entry; the wheel is O(1) for both.
+ * <p>
+ * Run with: {@code mvn test-compile} then the {@link #main} method from the IDE, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main TimingWheelBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    private static final long START = 0;
+    private static final long WEEK_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private record Timer(long key, long deadline) {
+    }
+
+    @Param({"10000", "500000"})
+    public int pending;
+
+    private HierarchicalTimingWheel<Long, Long> wheel;
+    private PriorityQueue<Timer> heap;
+    private Map<Long, Timer> heapIndex;
+
+    @Setup
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel<>(1000, 4, START);
+        heap = new PriorityQueue<>((a, b) -> Long.compare(a.deadline(), b.deadline()));
+        heapIndex = new HashMap<>();
+        for (long key = 0; key < pending; key++) {
+            long deadline = randomDeadline();
+            wheel.schedule(key, deadline, deadline);
+            Timer timer = new Timer(key, deadline);
+            heap.add(timer);
+            heapIndex.put(key, timer);
+        }
+    }
+
+    @Benchmark
+    public boolean wheelReschedule() {
+        long deadline = randomDeadline();
+        return wheel.schedule(randomKey(), deadline, deadline);
+    }
+
+    @Benchmark
+    public boolean heapReschedule() {
+        Timer timer = new Timer(randomKey(), randomDeadline());
+        heap.remove(heapIndex.put(timer.key(), timer));
+        return heap.add(timer);
+    }
+
+    private long randomKey() {
+        return ThreadLocalRandom.current().nextLong(pending);
+    }
+
+    private static long randomDeadline() {
+        return START + 1 + ThreadLocalRandom.current().nextLong(WEEK_MILLIS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TimingWheelBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,182 @@
+package com.alma.todolistapplication.benchmark;
+
+import com.alma.todolistapplication.TodolistapplicationApplication;
+import com.alma.todolistapplication.config.FullTextIndexInitializer;
+import com.alma.todolistapplication.dto.CreateTodoRequest;
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.repository.TodoItemRepository;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TodoItemService;
+import com.alma.todolistapplication.service.TodoSearchService;
+import com.alma.todolistapplication.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page (50 hits) of a search over a user with 50,000 items: the FULLTEXT path against
+ * {@code LIKE '%word%'}.
+ * <p>
+ * Needs MySQL. Point the usual Spring settings at an empty database, e.g.
+ * {@code SPRING_DATASOURCE_URL=jdbc:mysql://localhost:3306/todolist_bench?createDatabaseIfNotExist=true&rewriteBatchedStatements=true},
+ * plus {@code SPRING_DATASOURCE_USERNAME}/{@code _PASSWORD},
+ * {@code SPRING_DATASOURCE_DRIVER_CLASS_NAME=com.mysql.cj.jdbc.Driver},
+ * {@code SPRING_JPA_PROPERTIES_HIBERNATE_DIALECT=org.hibernate.dialect.MySQLDialect} and
+ * {@code SPRING_JPA_HIBERNATE_DDL_AUTO=update}. The first run seeds {@code users} users with
+ * {@code itemsPerUser} items each, since the FULLTEXT index is shared by all users. Later runs
+ * reuse that data.
+ * <p>
+ * Descriptions are 3-8 words drawn from a 2,000-word vocabulary with a Zipf-like skew.
+ * {@code common} is the most frequent word, {@code rare} a word in about 0.1% of items,
+ * {@code prefix} the first four letters of a mid-frequency word, and {@code twoWords} two mid-frequency
+ * words that must both match.
+ * <p>
+ * Run with: {@code mvn test-compile} then the {@link #main} method from the IDE, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main TodoSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoSearchBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int VOCABULARY_SIZE = 2000;
+    private static final String USERNAME_PREFIX = "search-bench-";
+
+    @Param({"common", "rare", "prefix", "twoWords"})
+    public String query;
+
+    @Param({"50000"})
+    public int itemsPerUser;
+
+    @Param({"4"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private TodoSearchService todoSearchService;
+    private TodoItemRepository todoItemRepository;
+    private Long userId;
+    private String searchText;
+    private String likeKeyword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodolistapplicationApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "spring.jpa.show-sql=false")
+                .run();
+        if (!context.getBean(FullTextIndexInitializer.class).isAvailable()) {
+            throw new IllegalStateException("Full-text search is unavailable, point SPRING_DATASOURCE_URL at MySQL (see class comment)");
+        }
+        todoSearchService = context.getBean(TodoSearchService.class);
+        todoItemRepository = context.getBean(TodoItemRepository.class);
+
+        List<String> vocabulary = vocabulary();
+        userId = seed(vocabulary);
+
+        String mid = vocabulary.get(200);
+        switch (query) {
+            case "common" -> { searchText = vocabulary.get(0); likeKeyword = searchText; }
+            case "rare" -> { searchText = vocabulary.get(1500); likeKeyword = searchText; }
+            case "prefix" -> { searchText = mid.substring(0, 4); likeKeyword = searchText; }
+            case "twoWords" -> { searchText = mid + " " + vocabulary.get(201); likeKeyword = mid; } // LIKE can only take one substring
+            default -> throw new IllegalArgumentException(query);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TodoItem> fullText() {
+        return todoSearchService.searchTodoItemsForUser(userId, searchText, 0, PAGE_SIZE).items();
+    }
+
+    @Benchmark
+    public List<TodoItem> like() {
+        return todoItemRepository.findByUserIdAndDescriptionContainingIgnoreCaseOrderByCreatedAtDescIdDesc(
+                userId, likeKeyword, PageRequest.of(0, PAGE_SIZE)).getContent();
+    }
+
+    // Returns the id of the user that is searched; everyone else only adds rows to the shared index
+    private Long seed(List<String> vocabulary) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        UserService userService = context.getBean(UserService.class);
+        TodoItemService todoItemService = context.getBean(TodoItemService.class);
+        Random random = new Random(42);
+        Long searchedUserId = null;
+        for (int u = 0; u < users; u++) {
+            String username = USERNAME_PREFIX + u;
+            User existing = userRepository.findByUsername(username).orElse(null);
+            if (existing != null) {
+                searchedUserId = searchedUserId == null ? existing.getId() : searchedUserId;
+                continue;
+            }
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("secret1");
+            user.setEmail(username + "@example.com");
+            Long id = userService.registerNewUser(user).getId();
+            searchedUserId = searchedUserId == null ? id : searchedUserId;
+            for (int created = 0; created < itemsPerUser; created += 1000) {
+                List<CreateTodoRequest> batch = new ArrayList<>(1000);
+                for (int i = 0; i < Math.min(1000, itemsPerUser - created); i++) {
+                    batch.add(new CreateTodoRequest(description(vocabulary, random), null));
+                }
+                todoItemService.createTodoItems(batch, id);
+            }
+        }
+        return searchedUserId;
+    }
+
+    private static String description(List<String> vocabulary, Random random) {
+        int words = 3 + random.nextInt(6);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            // Zipf-like: rank r is picked with probability roughly proportional to 1/r
+            int rank = (int) Math.floor(Math.pow(VOCABULARY_SIZE + 1, random.nextDouble())) - 1;
+            description.append(i == 0 ? "" : " ").append(vocabulary.get(Math.min(rank, VOCABULARY_SIZE - 1)));
+        }
+        return description.toString();
+    }
+
+    // Distinct pronounceable words, the same on every run
+    private static List<String> vocabulary() {
+        String[] consonants = {"b", "d", "f", "g", "k", "l", "m", "n", "p", "r", "s", "t", "v", "z"};
+        String[] vowels = {"a", "e", "i", "o", "u"};
+        Random random = new Random(7);
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < VOCABULARY_SIZE) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 0; syllable < 3 + random.nextInt(2); syllable++) {
+                word.append(consonants[random.nextInt(consonants.length)]).append(vowels[random.nextInt(vowels.length)]);
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TodoSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
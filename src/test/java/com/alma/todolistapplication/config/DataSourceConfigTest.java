@@ -0,0 +1,49 @@
+package com.alma.todolistapplication.config;
+
+import com.alma.todolistapplication.security.AuthTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The admission bound as the context builds it, from Boot's own data source auto-configuration
+class DataSourceConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceConfig.class)
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:bound;MODE=MySQL",
+                    "spring.datasource.driver-class-name=org.h2.Driver");
+
+    @Test
+    void anUnsizedPoolKeepsOneOfHikarisDefaultTenBack() {
+        contextRunner.run(context -> assertThat(context.getBean(DataSource.class))
+                .isInstanceOfSatisfying(BoundedDataSource.class, bounded -> assertThat(bounded.getMaxActive()).isEqualTo(9)));
+    }
+
+    @Test
+    void aSizedPoolKeepsOneBack() {
+        contextRunner.withPropertyValues("spring.datasource.hikari.maximum-pool-size=20")
+                .run(context -> assertThat(context.getBean(DataSource.class))
+                        .isInstanceOfSatisfying(BoundedDataSource.class, bounded -> assertThat(bounded.getMaxActive()).isEqualTo(19)));
+    }
+
+    @Test
+    void primaryAndReplicaPoolsAreBoundedTheSameWay() {
+        contextRunner.withPropertyValues("app.datasource.replica.enabled=true",
+                        "app.datasource.replica.url=jdbc:h2:mem:bound-replica;MODE=MySQL")
+                .withUserConfiguration(AuthTokenService.class) // Signs the routing's read-your-writes cookie
+                .run(context -> {
+                    assertThat(context.getBean("primaryDataSource"))
+                            .isInstanceOfSatisfying(BoundedDataSource.class, bounded -> assertThat(bounded.getMaxActive()).isEqualTo(9));
+                    assertThat(context.getBean("replicaDataSource"))
+                            .isInstanceOfSatisfying(BoundedDataSource.class, bounded -> assertThat(bounded.getMaxActive()).isEqualTo(9));
+                });
+    }
+}
@@ -0,0 +1,211 @@
+package com.alma.todolistapplication.config;
+
+import com.alma.todolistapplication.security.AuthTokenService;
+import com.alma.todolistapplication.security.AuthenticatedUser;
+import com.alma.todolistapplication.security.RecentWriteCookie;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Two in-memory H2 databases in MySQL mode (for UNIX_TIMESTAMP) stand in for the primary and its replica; each knows which one it is
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    // Shared by every node, as app.security.token.secret is
+    private final AuthTokenService tokenService = new AuthTokenService(
+            Base64.getEncoder().encodeToString(new byte[32]), Duration.ofHours(1), Duration.ofMinutes(10));
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        lagMonitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(node());
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly = readOnly(dataSource);
+        replicatedBeat(System.currentTimeMillis());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndTheRestToThePrimary() {
+        signIn(1L, "alice");
+
+        assertThat(readOnlyRead()).isEqualTo("replica");
+        assertThat(readWriteRead()).isEqualTo("primary");
+        assertThat(whichDatabase()).isEqualTo("primary"); // No transaction at all
+    }
+
+    @Test
+    void aUserReadsTheirOwnWritesFromThePrimary() {
+        signIn(1L, "alice");
+        readWrite.executeWithoutResult(status -> jdbc.update("UPDATE marker SET name = name"));
+        assertThat(readOnlyRead()).isEqualTo("primary");
+
+        // Other users aren't held back by it
+        signIn(2L, "bob");
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void aWriteOnOneNodeKeepsTheUsersReadsOnThePrimaryOnAnother() {
+        signIn(1L, "alice");
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        inRequest(new MockHttpServletRequest(), writeResponse,
+                () -> readWrite.execute(status -> jdbc.update("UPDATE marker SET name = name")));
+        Cookie wroteAt = writeResponse.getCookie(RecentWriteCookie.COOKIE_NAME);
+        assertThat(wroteAt).isNotNull();
+
+        // Same databases and token key, but nothing remembered about alice
+        LazyConnectionDataSourceProxy otherNode = new LazyConnectionDataSourceProxy(node());
+        TransactionTemplate otherNodeReadOnly = readOnly(otherNode);
+        MockHttpServletRequest nextRequest = new MockHttpServletRequest();
+        nextRequest.setCookies(wroteAt);
+        Supplier<String> read = () -> otherNodeReadOnly.execute(status ->
+                new JdbcTemplate(otherNode).queryForObject("SELECT name FROM marker", String.class));
+
+        assertThat(inRequest(new MockHttpServletRequest(), new MockHttpServletResponse(), read)).isEqualTo("replica");
+        assertThat(inRequest(nextRequest, new MockHttpServletResponse(), read)).isEqualTo("primary");
+
+        signIn(2L, "bob"); // Presenting alice's cookie doesn't make it bob's
+        assertThat(inRequest(nextRequest, new MockHttpServletResponse(), read)).isEqualTo("replica");
+    }
+
+    @Test
+    void aRolledBackWriteDoesNotStick() {
+        signIn(1L, "alice");
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("UPDATE marker SET name = name");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        replicatedBeat(System.currentTimeMillis() - Duration.ofMinutes(1).toMillis());
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnlyRead()).isEqualTo("primary");
+
+        replicatedBeat(System.currentTimeMillis());
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    @Test
+    void theBeatThePrimaryWroteIsMeasuredAgainstThePrimarysClock() {
+        JdbcTemplate onPrimary = new JdbcTemplate(primary);
+        long written = onPrimary.queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+        assertThat(written).isCloseTo(System.currentTimeMillis(), within(2000L)); // H2 keeps whole seconds
+
+        replicatedBeat(written);
+
+        assertThat(lagMonitor.getStaleness()).isLessThan(Duration.ofSeconds(2));
+        assertThat(lagMonitor.isReplicaUsable()).isTrue();
+    }
+
+    @Test
+    void theReplicaIsNotUsedBeforeAnyHeartbeatReachedIt() {
+        ReplicaLagMonitor fresh = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5));
+
+        assertThat(fresh.isReplicaUsable()).isFalse();
+    }
+
+    @Test
+    void callersCanInsistOnThePrimary() {
+        assertThat(ReadWriteRoutingDataSource.usingPrimary(this::readOnlyRead))
+                .isEqualTo("primary");
+        assertThat(readOnlyRead()).isEqualTo("replica");
+    }
+
+    private ReadWriteRoutingDataSource node() {
+        return new ReadWriteRoutingDataSource(primary, replica, lagMonitor,
+                new RecentWriteCookie(tokenService, Duration.ofMinutes(1)), Duration.ofMinutes(1), 100);
+    }
+
+    private static TransactionTemplate readOnly(DataSource dataSource) {
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+        return readOnly;
+    }
+
+    private static <T> T inRequest(MockHttpServletRequest request, MockHttpServletResponse response, Supplier<T> action) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        try {
+            return action.get();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private String readOnlyRead() {
+        return readOnly.execute(status -> whichDatabase());
+    }
+
+    private String readWriteRead() {
+        return readWrite.execute(status -> whichDatabase());
+    }
+
+    private String whichDatabase() {
+        return jdbc.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    // What replication would do: the beat the primary wrote shows up on the replica
+    private void replicatedBeat(long beatMillis) {
+        new JdbcTemplate(replica).update("MERGE INTO replica_heartbeat (id, beat_millis) KEY (id) VALUES (1, ?)", beatMillis);
+        lagMonitor.heartbeat();
+    }
+
+    private static void signIn(Long id, String username) {
+        AuthenticatedUser user = AuthenticatedUser.of(id, username);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+    }
+
+    private static DataSource database(String name) {
+        DataSource database = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(database);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(16))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        // As migration V5 leaves it
+        jdbc.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbc.update("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, 0)");
+        return database;
+    }
+}
@@ -0,0 +1,45 @@
+package com.alma.todolistapplication.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExplainingDataSourceTest {
+
+    @Test
+    void parametersAreWrittenInAsLiterals() throws SQLException {
+        Map<Integer, Object> parameters = new HashMap<>();
+        parameters.put(1, 42L);
+        parameters.put(2, false);
+        parameters.put(3, "it's a \\ test");
+        parameters.put(4, Timestamp.valueOf(LocalDateTime.of(2026, 1, 2, 3, 4, 5)));
+        parameters.put(5, LocalDateTime.of(2026, 1, 2, 3, 4, 5, 123_456_789));
+        parameters.put(6, null);
+
+        assertThat(ExplainingDataSource.withParameters(
+                "select * from t where a=? and b=? and c like ? and d<? and d>? and e<=>?", parameters))
+                .isEqualTo("select * from t where a=42 and b=false and c like 'it''s a \\\\ test' "
+                        + "and d<'2026-01-02 03:04:05.000000' and d>'2026-01-02 03:04:05.123456' and e<=>NULL");
+    }
+
+    @Test
+    void questionMarksInsideQuotesAreNotParameters() throws SQLException {
+        assertThat(ExplainingDataSource.withParameters(
+                "select '?', `a?`, 'it\\'s?' from t where id=?", Map.of(1, 7)))
+                .isEqualTo("select '?', `a?`, 'it\\'s?' from t where id=7");
+    }
+
+    @Test
+    void aMissingParameterIsAnError() {
+        assertThatThrownBy(() -> ExplainingDataSource.withParameters("select * from t where a=? and b=?", Map.of(1, 1)))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("parameter 2");
+    }
+}
@@ -0,0 +1,40 @@
+package com.alma.todolistapplication.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryPlanTest {
+
+    private static final String SQL = "select ti1_0.id from todo_items ti1_0 join users u1_0 on u1_0.id=ti1_0.user_id "
+            + "where u1_0.id=? order by ti1_0.due_date";
+
+    @Test
+    void scansAndSortsOfLargeStepsAreNamedByTable() {
+        QueryPlan plan = new QueryPlan(SQL, List.of(
+                new QueryPlan.Step("u1_0", "const", "PRIMARY", 1L, "Using index"),
+                new QueryPlan.Step("ti1_0", "ALL", null, 50_000L, "Using where; Using temporary; Using filesort")), null);
+
+        assertThat(plan.problems(1000)).containsExactly(
+                "full scan of todo_items (~50000 rows)", "filesort on todo_items (~50000 rows)", "temporary table for todo_items");
+    }
+
+    @Test
+    void smallStepsAndIndexLookupsAreNotFlagged() {
+        QueryPlan plan = new QueryPlan(SQL, List.of(
+                new QueryPlan.Step("u1_0", "ALL", null, 40L, "Using where"),
+                new QueryPlan.Step("ti1_0", "ref", "idx_todo_items_user_due", 50_000L, "Using where")), null);
+
+        assertThat(plan.problems(1000)).isEmpty();
+    }
+
+    @Test
+    void fullIndexScansNameTheIndex() {
+        QueryPlan plan = new QueryPlan("select id from bulk_jobs bj1_0 where bj1_0.status in (?)", List.of(
+                new QueryPlan.Step("bj1_0", "index", "PRIMARY", 2_000L, "Using where")), null);
+
+        assertThat(plan.problems(1000)).containsExactly("full scan of index PRIMARY on bulk_jobs (~2000 rows)");
+    }
+}
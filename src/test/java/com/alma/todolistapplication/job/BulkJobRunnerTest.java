@@ -0,0 +1,72 @@
+package com.alma.todolistapplication.job;
+
+import com.alma.todolistapplication.model.BulkJob;
+import com.alma.todolistapplication.service.BulkJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkJobRunnerTest {
+
+    private final BulkJobService bulkJobService = mock(BulkJobService.class);
+    private final BulkJobRunner runner = new BulkJobRunner(bulkJobService, 2, Duration.ZERO, Duration.ofMinutes(2));
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void aJobWithNothingToDoFinishesAndIsForgotten() {
+        for (long jobId = 1; jobId <= 200; jobId++) { // Finishing before start() returns is a race; try it often
+            when(bulkJobService.processNextChunk(jobId)).thenReturn(finished());
+            CompletableFuture<BulkJob> job = runner.start(jobId);
+
+            assertThat(job.join().isFinished()).isTrue();
+        }
+        awaitNothingRunning();
+    }
+
+    @Test
+    void aJobAlreadyRunningIsNotStartedTwice() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkJobService.processNextChunk(anyLong())).thenAnswer(invocation -> {
+            release.await();
+            return finished();
+        });
+
+        CompletableFuture<BulkJob> first = runner.start(1L);
+        CompletableFuture<BulkJob> second = runner.start(1L);
+        release.countDown();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.join().isFinished()).isTrue();
+        verify(bulkJobService, times(1)).processNextChunk(1L);
+    }
+
+    private void awaitNothingRunning() {
+        // The entry goes in the future's completion callback, just after join() returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (runner.runningCount() > 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static BulkJob finished() {
+        BulkJob job = new BulkJob(1L, BulkJob.Type.DELETE_COMPLETED, 0);
+        job.setStatus(BulkJob.Status.DONE);
+        return job;
+    }
+}
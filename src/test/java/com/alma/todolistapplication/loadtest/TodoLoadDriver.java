@@ -0,0 +1,444 @@
+package com.alma.todolistapplication.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Closed-loop HTTP load against a running instance.
+ * <p>
+ * Each of {@code clients} browsers logs in through {@code /perform_login} (with its CSRF token),
+ * then loops without think time over a weighted mix of list ({@code GET /}), add, toggle, delete
+ * and clear-completed, like a browser without JavaScript. Redirects are not followed, so every
+ * request is timed on its own. Throughput and p50/p90/p99/p99.9/max latency are reported per
+ * endpoint; 503s (database busy) are counted separately from other errors.
+ * <p>
+ * Clients log in as users made by the data generator ({@code users=gen:10000} picks distinct users
+ * among {@code gen-0000000} to {@code gen-0009999} at random; see {@code SyntheticDataGenerator}),
+ * or, without {@code users}, register fresh users with five items each.
+ * <p>
+ * With {@code stuffing=50}, that many more threads run a credential-stuffing attack for the whole
+ * run: failed form logins as random generated users, each from a random one of {@code stuffing-ips}
+ * addresses (sent as X-Forwarded-For; start the application with
+ * {@code --server.forward-headers-strategy=native} for it to believe them), at {@code stuffing-rate}
+ * attempts per second between them however fast they are answered, or back to back with
+ * {@code stuffing-rate=0}. Their outcomes (302 to
+ * the login error page, 429 throttled) are reported next to the to-do latencies, which they
+ * shouldn't move much (see {@code LoginRateLimiter}, {@code BoundedPasswordEncoder}).
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.profiles=datagen       # once, to load the data
+ * mvn spring-boot:run                                          # or -Dspring-boot.run.profiles=virtual-threads (JDK 21+)
+ * mvn test-compile
+ * java -cp target/test-classes:&lt;test classpath&gt; com.alma.todolistapplication.loadtest.TodoLoadDriver \
+ *      url=http://localhost:8080 clients=200 duration=60 warmup=15 users=gen:10000 password=password \
+ *      mix=list:60,add:15,toggle:15,delete:5,clear:5 stuffing=0 stuffing-ips=1000 stuffing-rate=100
+ * </pre>
+ * The values shown are the defaults, except {@code users}. Registering fresh users counts against the
+ * registration rate limit: start the application with {@code --app.security.rate-limit.enabled=false}.
+ */
+public class TodoLoadDriver {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern ITEM_ID = Pattern.compile("id=\"todo-(\\d+)\"");
+
+    private enum Endpoint {
+        LIST("GET /", 60, 200),
+        ADD("POST /add", 15, 302),
+        TOGGLE("POST /toggle/{id}", 15, 302),
+        DELETE("POST /delete/{id}", 5, 302),
+        CLEAR("POST /clear-completed", 5, 302);
+
+        final String label;
+        final int defaultWeight;
+        final int expectedStatus;
+
+        Endpoint(String label, int defaultWeight, int expectedStatus) {
+            this.label = label;
+            this.defaultWeight = defaultWeight;
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    // One logged-in browser: its own cookies, CSRF token and the item ids it last saw
+    private static final class Client {
+        final Map<String, String> cookies = new HashMap<>();
+        final Map<Endpoint, long[]> latencies = new EnumMap<>(Endpoint.class);
+        final Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+        final Map<Endpoint, Integer> rejected = new EnumMap<>(Endpoint.class);
+        final Map<Endpoint, Integer> errors = new EnumMap<>(Endpoint.class);
+        String csrfToken;
+        List<Long> itemIds = new ArrayList<>();
+
+        void record(Endpoint endpoint, long nanos) {
+            int n = counts.merge(endpoint, 1, Integer::sum);
+            long[] values = latencies.computeIfAbsent(endpoint, e -> new long[1024]);
+            if (n > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                latencies.put(endpoint, values);
+            }
+            values[n - 1] = nanos;
+        }
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String baseUrl;
+    private final Map<Endpoint, Integer> weights;
+    private final int totalWeight;
+    private final AtomicLongArray stuffingOutcomes = new AtomicLongArray(3); // failed login, throttled, other
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    private TodoLoadDriver(String baseUrl, Map<Endpoint, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.weights = weights;
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, got: " + arg);
+            }
+            options.put(pair[0], pair[1]);
+        }
+        TodoLoadDriver driver = new TodoLoadDriver(options.getOrDefault("url", "http://localhost:8080"),
+                parseMix(options.getOrDefault("mix", "")));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        List<Client> logins = options.containsKey("users")
+                ? driver.logInAsGenerated(clients, options.get("users"), options.getOrDefault("password", "password"))
+                : driver.logInAsNewUsers(clients);
+        driver.startStuffing(Integer.parseInt(options.getOrDefault("stuffing", "0")),
+                Integer.parseInt(options.getOrDefault("stuffing-ips", "1000")),
+                Double.parseDouble(options.getOrDefault("stuffing-rate", "100")), options.getOrDefault("users", "gen:10000"));
+        driver.run(logins, Integer.parseInt(options.getOrDefault("duration", "60")),
+                Integer.parseInt(options.getOrDefault("warmup", "15")));
+    }
+
+    // "list:60,add:15,..." over the defaults; a weight of 0 leaves an endpoint out
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            weights.put(endpoint, endpoint.defaultWeight);
+        }
+        for (String entry : mix.split(",")) {
+            if (!entry.isBlank()) {
+                String[] pair = entry.split(":", 2);
+                weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+            }
+        }
+        return weights;
+    }
+
+    private void run(List<Client> clients, int seconds, int warmupSeconds) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(clients.size());
+        for (Client client : clients) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (!stopped) {
+                        step(client);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        System.out.printf("Warming up for %d s, then measuring for %d s with %d clients, mix %s...%n",
+                warmupSeconds, seconds, clients.size(), weights);
+        Thread.sleep(warmupSeconds * 1000L);
+        measuring = true;
+        Thread.sleep(seconds * 1000L);
+        measuring = false;
+        stopped = true;
+        done.await();
+        report(clients, seconds);
+        if (stuffingOutcomes.get(0) + stuffingOutcomes.get(1) + stuffingOutcomes.get(2) > 0) {
+            System.out.printf("%ncredential stuffing: %.1f attempts/s, %d failed logins (302), %d throttled (429), %d other%n",
+                    (stuffingOutcomes.get(0) + stuffingOutcomes.get(1) + stuffingOutcomes.get(2)) / (double) seconds,
+                    stuffingOutcomes.get(0), stuffingOutcomes.get(1), stuffingOutcomes.get(2));
+        }
+    }
+
+    // Wrong passwords for random generated users, from random addresses, until the run stops
+    private void startStuffing(int threads, int addresses, double attemptsPerSecond, String users) {
+        String[] spec = users.split(":", 2);
+        int population = Integer.parseInt(spec[1]);
+        long intervalNanos = attemptsPerSecond > 0 ? (long) (threads * 1e9 / attemptsPerSecond) : 0;
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                Client attacker = new Client();
+                long next = System.nanoTime() + ThreadLocalRandom.current().nextLong(intervalNanos + 1);
+                while (!stopped) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    next = Math.max(next + intervalNanos, System.nanoTime()); // Late attempts are not made up for
+                    int outcome;
+                    try {
+                        if (attacker.csrfToken == null) {
+                            attacker.csrfToken = csrf(send(attacker, get("/login")).body());
+                        }
+                        HttpRequest.Builder attempt = post("/perform_login", attacker, "username="
+                                + String.format("%s-%07d", spec[0], random.nextInt(population)) + "&password=guess" + random.nextInt());
+                        if (addresses > 0) {
+                            int address = random.nextInt(addresses);
+                            attempt.header("X-Forwarded-For", "10." + (address >> 16 & 255) + "." + (address >> 8 & 255) + "." + (address & 255));
+                        }
+                        int status = send(attacker, attempt).statusCode();
+                        outcome = status == 302 ? 0 : status == 429 ? 1 : 2;
+                    } catch (IOException | IllegalStateException e) {
+                        attacker.csrfToken = null;
+                        outcome = 2;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (measuring) {
+                        stuffingOutcomes.incrementAndGet(outcome);
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private void step(Client client) {
+        Endpoint endpoint = pick();
+        long started = System.nanoTime();
+        int status;
+        try {
+            status = switch (endpoint) {
+                case LIST -> list(client);
+                case ADD -> add(client);
+                case TOGGLE -> {
+                    if (client.itemIds.isEmpty()) {
+                        yield add(client);
+                    }
+                    long id = client.itemIds.get(ThreadLocalRandom.current().nextInt(client.itemIds.size()));
+                    yield send(client, post("/toggle/" + id, client, "completed=" + ThreadLocalRandom.current().nextBoolean())).statusCode();
+                }
+                case DELETE -> {
+                    if (client.itemIds.isEmpty()) {
+                        yield add(client);
+                    }
+                    Long id = client.itemIds.remove(ThreadLocalRandom.current().nextInt(client.itemIds.size()));
+                    yield send(client, post("/delete/" + id, client, "")).statusCode();
+                }
+                case CLEAR -> send(client, post("/clear-completed", client, "")).statusCode();
+            };
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long elapsed = System.nanoTime() - started;
+        if (!measuring) {
+            return;
+        }
+        if (status == endpoint.expectedStatus) {
+            client.record(endpoint, elapsed);
+        } else if (status == 503) {
+            client.rejected.merge(endpoint, 1, Integer::sum);
+        } else {
+            client.errors.merge(endpoint, 1, Integer::sum);
+        }
+    }
+
+    private Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Endpoint, Integer> weight : weights.entrySet()) {
+            roll -= weight.getValue();
+            if (roll < 0) {
+                return weight.getKey();
+            }
+        }
+        return Endpoint.LIST;
+    }
+
+    private int list(Client client) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(client, get("/"));
+        if (response.statusCode() == 200) {
+            client.itemIds = itemIds(response.body());
+        }
+        return response.statusCode();
+    }
+
+    private int add(Client client) throws IOException, InterruptedException {
+        return send(client, post("/add", client, "description=Load+test+item&dueDate=")).statusCode();
+    }
+
+    private List<Client> logInAsGenerated(int clientCount, String users, String password) throws IOException, InterruptedException {
+        String[] spec = users.split(":", 2);
+        int population = Integer.parseInt(spec[1]);
+        if (clientCount > population) {
+            throw new IllegalArgumentException(clientCount + " clients need at least as many generated users, got " + population);
+        }
+        System.out.printf("Logging in %d of %d generated users against %s...%n", clientCount, population, baseUrl);
+        Set<Integer> picked = new HashSet<>();
+        List<Client> clients = new ArrayList<>(clientCount);
+        while (clients.size() < clientCount) {
+            int number = ThreadLocalRandom.current().nextInt(population);
+            if (picked.add(number)) {
+                Client client = logIn(String.format("%s-%07d", spec[0], number), password);
+                list(client);
+                clients.add(client);
+            }
+        }
+        return clients;
+    }
+
+    private List<Client> logInAsNewUsers(int clientCount) throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+        String password = "load-password";
+        System.out.printf("Registering %d users against %s...%n", clientCount, baseUrl);
+        List<Client> clients = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            String username = "load" + runId + "u" + i;
+            Client client = new Client();
+            client.csrfToken = csrf(send(client, get("/register")).body());
+            send(client, post("/perform-register", client, "username=" + username + "&email=" + username + "%40example.com"
+                    + "&password=" + password + "&confirmPassword=" + password));
+            logIn(client, username, password);
+            for (int n = 0; n < 5; n++) {
+                send(client, post("/add", client, "description=Seed+item+" + n + "&dueDate="));
+            }
+            list(client);
+            clients.add(client);
+        }
+        return clients;
+    }
+
+    private Client logIn(String username, String password) throws IOException, InterruptedException {
+        Client client = new Client();
+        logIn(client, username, password);
+        return client;
+    }
+
+    private void logIn(Client client, String username, String password) throws IOException, InterruptedException {
+        client.csrfToken = csrf(send(client, get("/login")).body());
+        HttpResponse<String> login = send(client, post("/perform_login", client,
+                "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8) + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8)));
+        if (login.statusCode() != 302 || login.headers().firstValue("Location").orElse("").contains("error")) {
+            throw new IllegalStateException("Login failed for " + username + ": HTTP " + login.statusCode());
+        }
+        client.csrfToken = csrf(send(client, get("/")).body()); // The token changes at login
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Client client, String form) {
+        String body = (form.isEmpty() ? "" : form + "&") + "_csrf=" + URLEncoder.encode(client.csrfToken, StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    // A minimal cookie jar: the session (or login token) and CSRF cookies are all this app sets
+    private HttpResponse<String> send(Client client, HttpRequest.Builder request) throws IOException, InterruptedException {
+        if (!client.cookies.isEmpty()) {
+            request.header("Cookie", client.cookies.entrySet().stream()
+                    .map(cookie -> cookie.getKey() + "=" + cookie.getValue())
+                    .collect(Collectors.joining("; ")));
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            String pair = setCookie.split(";", 2)[0];
+            int equals = pair.indexOf('=');
+            String name = pair.substring(0, equals);
+            String value = pair.substring(equals + 1);
+            if (value.isEmpty() || setCookie.contains("Max-Age=0")) {
+                client.cookies.remove(name);
+            } else {
+                client.cookies.put(name, value);
+            }
+        }
+        return response;
+    }
+
+    private static String csrf(String html) {
+        Matcher matcher = CSRF.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No CSRF token in page");
+        }
+        return matcher.group(1);
+    }
+
+    private static List<Long> itemIds(String html) {
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = ITEM_ID.matcher(html);
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private static void report(List<Client> clients, int seconds) {
+        System.out.printf("%n%-22s %9s %8s %8s %8s %8s %8s %8s %7s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "503s", "errors");
+        long[] everything = new long[0];
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] all = clients.stream()
+                    .flatMapToLong(client -> Arrays.stream(client.latencies.getOrDefault(endpoint, new long[0]),
+                            0, client.counts.getOrDefault(endpoint, 0)))
+                    .sorted()
+                    .toArray();
+            int rejected = clients.stream().mapToInt(client -> client.rejected.getOrDefault(endpoint, 0)).sum();
+            int errors = clients.stream().mapToInt(client -> client.errors.getOrDefault(endpoint, 0)).sum();
+            printRow(endpoint.label, all, seconds, rejected, errors);
+            everything = concat(everything, all);
+        }
+        Arrays.sort(everything);
+        int rejected = clients.stream().flatMap(client -> client.rejected.values().stream()).mapToInt(Integer::intValue).sum();
+        int errors = clients.stream().flatMap(client -> client.errors.values().stream()).mapToInt(Integer::intValue).sum();
+        printRow("total", everything, seconds, rejected, errors);
+    }
+
+    private static void printRow(String label, long[] sorted, int seconds, int rejected, int errors) {
+        System.out.printf("%-22s %9d %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f %7d %7d%n", label, sorted.length,
+                sorted.length / (double) seconds, millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99),
+                millis(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, rejected, errors);
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,64 @@
+package com.alma.todolistapplication.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCounter statementCounter = new StatementCounter();
+    private final RequestMetricsInterceptor interceptor = new RequestMetricsInterceptor(statementCounter, registry);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void countsStatementsAndTimesTheRenderedView() throws Exception {
+        MockHttpServletRequest request = request("GET", "/");
+        HandlerMethod handler = handler();
+
+        interceptor.preHandle(request, response, handler);
+        statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+        interceptor.postHandle(request, response, handler, new ModelAndView("index"));
+        statementCounter.inspect("select 3"); // During rendering
+        interceptor.afterCompletion(request, response, handler, null);
+
+        DistributionSummary statements = registry.get("app.request.statements").tag("uri", "/").tag("method", "GET").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(3);
+        assertThat(registry.get("app.view.render").tag("view", "index").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void redirectsAreNotTimedAndStatementsOutsideARequestAreNotCounted() throws Exception {
+        statementCounter.inspect("select 0"); // No request in progress
+        MockHttpServletRequest request = request("POST", "/add");
+        HandlerMethod handler = handler();
+
+        interceptor.preHandle(request, response, handler);
+        statementCounter.inspect("insert into todo_items");
+        interceptor.postHandle(request, response, handler, new ModelAndView("redirect:/"));
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertThat(registry.get("app.request.statements").tag("uri", "/add").summary().totalAmount()).isEqualTo(1);
+        assertThat(registry.find("app.view.render").timer()).isNull();
+        assertThat(statementCounter.end()).isEqualTo(-1);
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(new Object(), Object.class.getMethod("toString"));
+    }
+}
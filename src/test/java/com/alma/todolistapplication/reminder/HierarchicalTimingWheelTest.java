@@ -0,0 +1,67 @@
+package com.alma.todolistapplication.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void timersOnEveryLevelFireOnTheirTickAfterCascading() {
+        HierarchicalTimingWheel<Integer, Long> wheel = new HierarchicalTimingWheel<>(1, 3, START);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 5_000; key++) {
+            long deadline = START + 1 + random.nextInt((int) wheel.getSpanMillis() - 1);
+            assertThat(wheel.schedule(key, deadline, deadline)).isTrue();
+            deadlines.put(key, deadline);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        for (long now = START + 1; now <= START + wheel.getSpanMillis(); now++) {
+            long tick = now;
+            wheel.advanceTo(now, (key, deadline) -> {
+                assertThat(deadline).isEqualTo(tick);
+                fired.add(key);
+            });
+        }
+        assertThat(fired).hasSameSizeAs(deadlines.keySet()).doesNotHaveDuplicates();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledAndRescheduledTimersFireOnceAtTheirLatestDeadline() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(1000, 2, START);
+        wheel.schedule("a", "first", START + 5_000);
+        wheel.schedule("b", "b", START + 70_000);
+        wheel.schedule("a", "second", START + 200_000);
+        assertThat(wheel.cancel("b")).isEqualTo("b");
+        assertThat(wheel.cancel("b")).isNull();
+
+        Map<String, String> fired = new HashMap<>();
+        wheel.advanceTo(START + 199_000, fired::put);
+        assertThat(fired).isEmpty();
+        wheel.advanceTo(START + 200_000, fired::put);
+        assertThat(fired).containsExactly(Map.entry("a", "second"));
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvanceAndOutOfSpanOnesAreRefused() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(1000, 2, START);
+        assertThat(wheel.schedule("late", "late", START - 10_000)).isTrue();
+        assertThat(wheel.schedule("far", "far", START + wheel.getSpanMillis() + 1_000)).isFalse();
+        assertThat(wheel.get("far")).isNull();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START, (key, value) -> fired.add(key));
+        assertThat(fired).containsExactly("late");
+    }
+}
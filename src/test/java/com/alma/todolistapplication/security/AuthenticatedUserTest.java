@@ -0,0 +1,23 @@
+package com.alma.todolistapplication.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.SerializationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticatedUserTest {
+
+    @Test
+    void sessionCopyCarriesIdentityButNoPasswordHash() {
+        AuthenticatedUser principal = AuthenticatedUser.of(new UserCredentials(42L, "alice", "$2a$10$hash", true));
+        principal.eraseCredentials(); // What ProviderManager does after a successful login
+
+        AuthenticatedUser restored = SerializationUtils.clone(principal); // Serialized and read back, as a session store would
+
+        assertThat(restored).isEqualTo(principal);
+        assertThat(restored.getId()).isEqualTo(42L);
+        assertThat(restored.getUsername()).isEqualTo("alice");
+        assertThat(restored.getPassword()).isNull();
+        assertThat(restored.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+}
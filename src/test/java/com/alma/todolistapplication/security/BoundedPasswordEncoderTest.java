@@ -0,0 +1,98 @@
+package com.alma.todolistapplication.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger hashed = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Stands in for BCrypt: every hash blocks until the test releases it
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            hashed.incrementAndGet();
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    private final BoundedPasswordEncoder encoder =
+            new BoundedPasswordEncoder(slowEncoder, 2, 3, Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void hashesBeyondTheThreadsAndQueueAreTurnedAwayAtOnce() {
+        List<CompletableFuture<Boolean>> admitted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) { // 2 hashing, 3 queued
+            admitted.add(CompletableFuture.supplyAsync(() -> encoder.matches("secret", "hash:secret")));
+        }
+        awaitGauge(meterRegistry, "app.security.password-hashing.queued", 3);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> encoder.matches("guess", "hash:secret")).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("app.security.password-hashing.rejected").functionCounter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(admitted).allSatisfy(result -> assertThat(result.join()).isTrue());
+    }
+
+    @Test
+    void aCallerThatGivesUpTakesItsHashOutOfTheQueue() {
+        SimpleMeterRegistry impatientMetrics = new SimpleMeterRegistry();
+        BoundedPasswordEncoder impatient = new BoundedPasswordEncoder(slowEncoder, 1, 3, Duration.ofMillis(100), impatientMetrics);
+        try {
+            CompletableFuture.runAsync(() -> impatient.encode("first"));
+            awaitGauge(impatientMetrics, "app.security.password-hashing.active", 1);
+            assertThatThrownBy(() -> impatient.encode("second")).isInstanceOf(PasswordHashingBusyException.class);
+
+            release.countDown();
+            assertThat(impatient.encode("third")).isEqualTo("hash:third");
+            assertThat(hashed.get()).isEqualTo(2); // first and third, never second
+        } finally {
+            impatient.destroy();
+        }
+    }
+
+    private static void awaitGauge(SimpleMeterRegistry registry, String name, double value) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get(name).gauge().value() < value) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
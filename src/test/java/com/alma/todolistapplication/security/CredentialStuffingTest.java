@@ -0,0 +1,113 @@
+package com.alma.todolistapplication.security;
+
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A burst of wrong passwords and registrations keeps password hashing saturated while a signed-in
+ * user reads their list with a token, which needs no hash but does need a pooled connection. A
+ * registration that waited for its hash inside its transaction held one of those connections for
+ * the whole wait, and the list queued behind them for seconds.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=4", // Three connections admitted at a time (see BoundedDataSource)
+        "app.security.password-hashing.threads=1",
+        "app.security.rate-limit.enabled=false", // The whole burst comes from one address here
+        "app.security.credentials-cache.enabled=false",
+        "app.cache.todo-lists.enabled=false"
+})
+@AutoConfigureMockMvc
+class CredentialStuffingTest {
+
+    private static final int BAD_LOGINS = 2; // Enough to keep the one hashing thread busy
+    private static final int REGISTRATIONS = 12; // Four times the connections admitted
+    private static final long MAX_LIST_MILLIS = 1000; // Half of app.security.password-hashing.max-wait
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Test
+    void listStaysFastWhileLoginsAndRegistrationsWaitForHashing() throws Exception {
+        User user = new User(null, "stuffing-target", "secret1", "stuffing-target@example.com", true, null);
+        User registered = userService.registerNewUser(user);
+        String token = authTokenService.issue(AuthenticatedUser.of(
+                new UserCredentials(registered.getId(), registered.getUsername(), registered.getPassword(), true)));
+
+        // Once before the burst: the first request pays for class loading
+        mockMvc.perform(get("/api/todos").header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).andExpect(status().isOk());
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger registrations = new AtomicInteger();
+        ExecutorService burst = Executors.newFixedThreadPool(BAD_LOGINS + REGISTRATIONS);
+        for (int i = 0; i < BAD_LOGINS; i++) {
+            burst.execute(() -> {
+                while (!stop.get()) {
+                    perform(() -> mockMvc.perform(get("/api/todos").with(httpBasic("stuffing-target", "guess"))));
+                }
+            });
+        }
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            burst.execute(() -> {
+                while (!stop.get()) {
+                    String name = "stuffed-" + registrations.incrementAndGet();
+                    perform(() -> mockMvc.perform(post("/perform-register").with(csrf())
+                            .param("username", name).param("email", name + "@example.com")
+                            .param("password", "password").param("confirmPassword", "password")));
+                }
+            });
+        }
+        try {
+            Thread.sleep(1000); // Until every registration is waiting for its hash
+            List<Long> listMillis = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                long started = System.nanoTime();
+                mockMvc.perform(get("/api/todos").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                        .andExpect(status().isOk());
+                listMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+
+            assertThat(listMillis).as("list times in ms").allMatch(millis -> millis < MAX_LIST_MILLIS);
+        } finally {
+            stop.set(true);
+            burst.shutdown();
+            assertThat(burst.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private interface Request {
+        void perform() throws Exception;
+    }
+
+    private static void perform(Request request) {
+        try {
+            request.perform();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
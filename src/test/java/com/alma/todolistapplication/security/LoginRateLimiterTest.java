@@ -0,0 +1,129 @@
+package com.alma.todolistapplication.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // 3 tokens per IP, one back every 20 s; 2 per username, one back every 30 s; 6 availability checks per IP
+    private final LoginRateLimiter limiter = new LoginRateLimiter(true,
+            new TokenBuckets(3, Duration.ofMinutes(1), 1000, now::get),
+            new TokenBuckets(2, Duration.ofMinutes(1), 1000, now::get),
+            new TokenBuckets(6, Duration.ofMinutes(1), 1000, now::get), meterRegistry);
+
+    @Test
+    void failedLoginsEmptyTheUsernameBucketAcrossAddresses() {
+        limiter.loginFailed("10.0.0.1", "alice");
+        limiter.loginFailed("10.0.0.2", "Alice");
+
+        assertThat(limiter.checkLogin("10.0.0.3", "ALICE")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(limiter.checkLogin("10.0.0.3", "bob")).isZero();
+
+        advance(Duration.ofSeconds(30));
+        assertThat(limiter.checkLogin("10.0.0.3", "alice")).isZero();
+        assertThat(meterRegistry.get("app.security.rate-limit.rejected").tag("key", "username").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedLoginsEmptyTheAddressBucketAcrossUsernames() {
+        for (String username : new String[]{"a", "b", "c"}) {
+            assertThat(limiter.checkLogin("10.0.0.1", username)).isZero();
+            limiter.loginFailed("10.0.0.1", username);
+        }
+
+        assertThat(limiter.checkLogin("10.0.0.1", "d")).isEqualTo(Duration.ofSeconds(20));
+        assertThat(limiter.checkLogin("10.0.0.2", "d")).isZero();
+        advance(Duration.ofSeconds(20));
+        assertThat(limiter.checkLogin("10.0.0.1", "d")).isZero();
+    }
+
+    @Test
+    void loginsTurnedAwayBusyCostTheAddressOnly() {
+        for (int i = 0; i < 3; i++) {
+            limiter.loginTurnedAway("10.0.0.1");
+        }
+
+        assertThat(limiter.checkLogin("10.0.0.1", "alice")).isEqualTo(Duration.ofSeconds(20));
+        assertThat(limiter.checkLogin("10.0.0.2", "alice")).isZero();
+    }
+
+    @Test
+    void successfulLoginsCostNothingButRegistrationsDo() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.checkLogin("10.0.0.1", "alice")).isZero();
+        }
+
+        assertThat(limiter.checkRegistration("10.0.0.1")).isZero();
+        assertThat(limiter.checkRegistration("10.0.0.1")).isZero();
+        assertThat(limiter.checkRegistration("10.0.0.1")).isZero();
+        assertThat(limiter.checkRegistration("10.0.0.1")).isEqualTo(Duration.ofSeconds(20));
+    }
+
+    @Test
+    void availabilityChecksHaveTheirOwnBucketPerAddress() {
+        for (int i = 0; i < 6; i++) {
+            assertThat(limiter.checkAvailability("10.0.0.1")).isZero();
+        }
+
+        assertThat(limiter.checkAvailability("10.0.0.1")).isEqualTo(Duration.ofSeconds(10));
+        assertThat(limiter.checkAvailability("10.0.0.2")).isZero();
+        assertThat(limiter.checkRegistration("10.0.0.1")).isZero();
+        assertThat(meterRegistry.get("app.security.rate-limit.rejected").tag("key", "availability").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void idleBucketsAreDroppedOnceFull() {
+        TokenBuckets buckets = new TokenBuckets(2, Duration.ofSeconds(10), 1000, now::get);
+        buckets.take("10.0.0.1");
+        buckets.take("10.0.0.2");
+        assertThat(buckets.size()).isEqualTo(2);
+
+        advance(Duration.ofSeconds(10));
+        buckets.cleanUp();
+        assertThat(buckets.size()).isZero();
+    }
+
+    @Test
+    void concurrentTakersNeverGetMoreThanTheCapacity() throws InterruptedException {
+        TokenBuckets buckets = new TokenBuckets(100, Duration.ofHours(1), 1000, now::get);
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            threads.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (buckets.tryTake("10.0.0.1")) {
+                        taken.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(taken.get()).isEqualTo(100);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,76 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.dto.TaskCounts;
+import com.alma.todolistapplication.dto.VersionedTaskCounts;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.model.UserTaskStats;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.repository.UserTaskStatsRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TaskStatsServiceImplTest {
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserTaskStatsRepository statsRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstWritesForAUserWithoutStatsBothCommit() {
+        // A user from before the stats table: no row until the first write creates one
+        Long userId = userRepository.save(new User(null, "stats-race", "password", "stats-race@example.com", true, null)).getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CyclicBarrier bothStarted = new CyclicBarrier(2);
+
+        List<CompletableFuture<Void>> writes = List.of(1, 2).stream()
+                .map(i -> CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+                    await(bothStarted);
+                    taskStatsService.recordChange(userId, 0, 0);
+                })))
+                .toList();
+
+        writes.forEach(CompletableFuture::join); // Neither fails on the stats row's primary key
+        assertThat(statsRepository.findById(userId)).get().extracting(UserTaskStats::getTotalCount).isEqualTo(0L);
+    }
+
+    @Test
+    void eachChangeReturnsTheListVersionItProduced() {
+        Long userId = userRepository.save(new User(null, "stats-version", "password", "stats-version@example.com", true, null)).getId();
+        taskStatsService.initializeForUser(userId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Long first = transaction.execute(status -> taskStatsService.recordChange(userId, 1, 0));
+        Long second = transaction.execute(status -> taskStatsService.recordChange(userId, 1, 1));
+
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+        assertThat(taskStatsService.getListVersion(userId)).contains(2L);
+        assertThat(taskStatsService.getVersionedCountsForUser(userId))
+                .isEqualTo(new VersionedTaskCounts(TaskCounts.of(2, 1), 2L));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.model.TodoItem;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TaskStatsService;
+import com.alma.todolistapplication.service.TodoItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.cache.todo-lists.enabled=false")
+class TodoItemServiceImplTest {
+
+    @Autowired
+    private TodoItemService todoItemService;
+    @Autowired
+    private TaskStatsService taskStatsService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentMultiItemTogglesAndDeletesKeepTheCountersExact() {
+        Long userId = userRepository.save(new User(null, "toggle-race", "password", "toggle-race@example.com", true, null)).getId();
+        taskStatsService.initializeForUser(userId);
+        List<Long> ids = IntStream.range(0, 40)
+                .mapToObj(i -> todoItemService.createTodoItem("item " + i, null, userId).getId())
+                .toList();
+
+        // Overlapping toggles, and deletes of items the toggles may be flipping at the same moment
+        List<CompletableFuture<Void>> writers = IntStream.range(0, 4)
+                .mapToObj(writer -> CompletableFuture.runAsync(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50; i++) {
+                        List<Long> some = ids.stream().filter(id -> random.nextInt(3) == 0).toList();
+                        try {
+                            if (writer == 0 && i % 10 == 0) {
+                                todoItemService.deleteTodoItems(List.of(ids.get(random.nextInt(ids.size()))), userId);
+                            } else {
+                                todoItemService.toggleComplete(some, userId);
+                            }
+                        } catch (PessimisticLockingFailureException e) {
+                            // Deadlock victim: rolled back whole, counters included
+                        }
+                    }
+                }))
+                .toList();
+        writers.forEach(CompletableFuture::join);
+
+        List<TodoItem> left = ids.stream()
+                .map(id -> todoItemService.getTodoItemByIdForUser(id, userId))
+                .flatMap(Optional::stream)
+                .toList();
+        assertThat(todoItemService.getTaskCountsForUser(userId).total()).isEqualTo(left.size());
+        assertThat(todoItemService.getTaskCountsForUser(userId).completed())
+                .isEqualTo(left.stream().filter(TodoItem::isCompleted).count());
+    }
+}
@@ -0,0 +1,24 @@
+package com.alma.todolistapplication.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoSearchServiceImplTest {
+
+    @Test
+    void everyWordBecomesARequiredPrefixAndOperatorsAreDropped() {
+        assertThat(TodoSearchServiceImpl.toBooleanQuery("Buy \"milk\" -bread* (today)", 3, Set.of()))
+                .isEqualTo("+buy* +milk* +bread* +today*");
+    }
+
+    @Test
+    void wordsTheIndexDoesNotHoldAreLeftOut() {
+        assertThat(TodoSearchServiceImpl.toBooleanQuery("fix the TV remote", 3, Set.of("the")))
+                .isEqualTo("+fix* +remote*");
+        // Nothing searchable left: the caller falls back to LIKE
+        assertThat(TodoSearchServiceImpl.toBooleanQuery("c++ tv", 3, Set.of())).isNull();
+    }
+}
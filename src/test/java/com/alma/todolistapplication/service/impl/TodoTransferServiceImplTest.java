@@ -0,0 +1,62 @@
+package com.alma.todolistapplication.service.impl;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+import com.alma.todolistapplication.model.User;
+import com.alma.todolistapplication.repository.UserRepository;
+import com.alma.todolistapplication.service.TodoTransferService;
+import com.alma.todolistapplication.transfer.TransferFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.transfer.export-chunk-size=3")
+class TodoTransferServiceImplTest {
+
+    @Autowired
+    private TodoTransferService transferService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportReadsEveryItemOnceAcrossChunks() throws Exception {
+        Long userId = userRepository.save(new User(null, "export-chunks", "password", "export-chunks@example.com", true, null)).getId();
+        // Ten items, two at each creation time, so chunks of three end between items created together
+        String ndjson = IntStream.range(0, 10)
+                .mapToObj(i -> "{\"description\":\"item " + i + "\",\"createdAt\":\"2025-01-0" + (1 + i / 2) + "T10:00:00\"}")
+                .collect(Collectors.joining("\n"));
+        transferService.importTodoItems(userId, TransferFormat.NDJSON, new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = transferService.exportTodoItems(userId, TransferFormat.NDJSON, out);
+
+        List<TodoItemDto> exported = out.toString(StandardCharsets.UTF_8).lines()
+                .map(this::read)
+                .toList();
+        assertThat(written).isEqualTo(10);
+        assertThat(exported).extracting(TodoItemDto::description)
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 10).mapToObj(i -> "item " + i).toList());
+        assertThat(exported).isSortedAccordingTo(Comparator.comparing(TodoItemDto::createdAt)
+                .thenComparing(TodoItemDto::id).reversed());
+    }
+
+    private TodoItemDto read(String line) {
+        try {
+            return objectMapper.readValue(line, TodoItemDto.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
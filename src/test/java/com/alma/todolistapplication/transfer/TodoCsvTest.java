@@ -0,0 +1,51 @@
+package com.alma.todolistapplication.transfer;
+
+import com.alma.todolistapplication.dto.TodoItemDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoCsvTest {
+
+    @Test
+    void descriptionsWithQuotesCommasAndLineBreaksSurviveARoundTrip() throws IOException {
+        TodoItemDto item = new TodoItemDto(7L, "Buy \"oat\" milk,\r\nand bread", true,
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5), LocalDateTime.of(2026, 1, 3, 0, 0), null);
+        StringWriter out = new StringWriter();
+        TodoCsv.writeHeader(out);
+        TodoCsv.writeRecord(out, item);
+
+        TodoCsv.RecordReader records = new TodoCsv.RecordReader(new StringReader(out.toString()));
+        TodoCsv.ItemMapper mapper = new TodoCsv.ItemMapper(records.next());
+        assertThat(mapper.toItem(records.next()))
+                .isEqualTo(new TodoItemDto(null, item.description(), true, item.createdAt(), item.completedAt(), null));
+        assertThat(records.next()).isNull();
+    }
+
+    @Test
+    void columnsAreMatchedByHeaderNameAndLinesAreCounted() throws IOException {
+        String csv = "due_date,Description\n2026-05-01T09:00,\"two\nlines\"\n,plain\n";
+
+        TodoCsv.RecordReader records = new TodoCsv.RecordReader(new StringReader(csv));
+        TodoCsv.ItemMapper mapper = new TodoCsv.ItemMapper(records.next());
+        assertThat(mapper.toItem(records.next()).dueDate()).isEqualTo(LocalDateTime.of(2026, 5, 1, 9, 0));
+        List<String> plain = records.next();
+        assertThat(records.getRecordLine()).isEqualTo(4);
+        assertThat(mapper.toItem(plain).description()).isEqualTo("plain");
+    }
+
+    @Test
+    void anUnterminatedQuoteIsMalformed() throws IOException {
+        TodoCsv.RecordReader records = new TodoCsv.RecordReader(new StringReader("description\n\"never closed\n"));
+        records.next();
+
+        assertThatThrownBy(records::next).isInstanceOf(TodoCsv.MalformedCsvException.class).hasMessageContaining("line 2");
+    }
+}
@@ -0,0 +1,10 @@
+-- The schema ddl-auto=update created before the migrations existed (Hibernate 6.6, MySQL dialect), with one user's items
+create table users (id bigint not null auto_increment, email varchar(255) not null, enabled bit not null, password varchar(255) not null, username varchar(50) not null, primary key (id)) engine=InnoDB;
+create table todo_items (id bigint not null auto_increment, completed bit not null, completed_at datetime(6), created_at datetime(6) not null, description varchar(255) not null, due_date datetime(6), user_id bigint not null, primary key (id)) engine=InnoDB;
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table todo_items add constraint FKav4ha4dkkk09oss5h6qdtnggv foreign key (user_id) references users (id);
+
+insert into users (email, enabled, password, username) values ('early@example.com', 1, '{noop}password', 'early');
+insert into todo_items (completed, completed_at, created_at, description, user_id) values (1, '2024-05-01 10:00:00', '2024-05-01 09:00:00', 'Written before the migrations', 1);
+insert into todo_items (completed, created_at, description, user_id) values (0, '2024-05-02 09:00:00', 'Still to do', 1);